@@ -4,10 +4,10 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.METHOD;
-import static java.lang.annotation.RetentionPolicy.CLASS;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
 @Target(METHOD)
-@Retention(CLASS)
+@Retention(RUNTIME)
 public @interface Forward {
 	ForwardStrategy value();
 }
\ No newline at end of file
@@ -11,4 +11,12 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
 public @interface GenerateSubstitutableForwarder {
 	String name();
 	Class<?> delegate();
+
+	/**
+	 * The name of a {@code FieldCodec} to generate alongside the forwarder, or an
+	 * empty string to only generate the forwarder. The codec is generated as an
+	 * enum with a single constant in the same package as the forwarder.
+	 */
+	String codec() default "";
+
 }
\ No newline at end of file
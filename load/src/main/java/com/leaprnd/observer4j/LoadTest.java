@@ -0,0 +1,261 @@
+package com.leaprnd.observer4j;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.leaprnd.observer4j.Topology.parseTopology;
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.ThreadLocalRandom.current;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * Builds a synthetic graph of listenables, adapters and listeners from a
+ * {@link Topology}, drives it at a fixed rate and periodically reports the
+ * end-to-end propagation latency, throughput, allocation rate and heap usage.
+ *
+ * Latency is measured from the time each update was scheduled to be made, not
+ * from the time it was actually made, so that a stalled driver does not hide
+ * stalls of the graph.
+ */
+public final class LoadTest {
+
+	private record Sample(long sequence, long scheduledNanoTime) {}
+
+	private static final class Source extends AbstractListenable<Sample> {
+
+		private Source(Executor executor) {
+			super(executor, new Sample(0, nanoTime()));
+		}
+
+		private void publish(Sample sample) {
+			update(sample);
+		}
+
+	}
+
+	private static final class Stage extends AbstractListenableAdapter<Sample> {
+
+		private final Listenable<Sample> upstream;
+
+		private Stage(Executor executor, Listenable<Sample> upstream) {
+			super(executor);
+			this.upstream = upstream;
+			initialize();
+		}
+
+		@Override
+		protected Sample build(Listener<Object> listener) {
+			return listener.listenTo(upstream);
+		}
+
+	}
+
+	private final Topology topology;
+	private final Executor executor;
+	private final List<Source> sources = new ArrayList<>();
+	private final List<Listenable<Sample>> leaves = new ArrayList<>();
+	private final List<StrongSynchronousListener<Sample>> strongListeners = new ArrayList<>();
+	private final Recorder latencies = new Recorder(3);
+	private final LongAdder numberOfUpdates = new LongAdder();
+	private final LongAdder numberOfDeliveries = new LongAdder();
+	private final LongAdder numberOfWeakListeners = new LongAdder();
+	private volatile boolean running = true;
+
+	private LoadTest(Topology topology, Executor executor) {
+		this.topology = topology;
+		this.executor = executor;
+		for (var index = 0; index < topology.sources(); index ++) {
+			final var source = new Source(executor);
+			sources.add(source);
+			addLevels(source, topology.depth());
+		}
+	}
+
+	private void addLevels(Listenable<Sample> upstream, int remainingDepth) {
+		if (remainingDepth == 0) {
+			leaves.add(upstream);
+			for (var index = 0; index < topology.strongListeners(); index ++) {
+				final StrongSynchronousListener<Sample> listener = (before, after) -> {
+					latencies.recordValue(nanoTime() - after.scheduledNanoTime());
+					numberOfDeliveries.increment();
+				};
+				strongListeners.add(listener);
+				upstream.listenWith(listener);
+			}
+			return;
+		}
+		for (var index = 0; index < topology.fanOut(); index ++) {
+			addLevels(new Stage(executor, upstream), remainingDepth - 1);
+		}
+	}
+
+	private void drive() {
+		final var periodInNanoseconds = SECONDS.toNanos(1) / topology.rate();
+		final var start = nanoTime();
+		var sequence = 0L;
+		while (running) {
+			sequence ++;
+			final var scheduledNanoTime = start + sequence * periodInNanoseconds;
+			final var delay = scheduledNanoTime - nanoTime();
+			if (delay > 0) {
+				parkNanos(delay);
+			}
+			final var source = sources.get((int) (sequence % sources.size()));
+			source.publish(new Sample(sequence, scheduledNanoTime));
+			numberOfUpdates.increment();
+		}
+	}
+
+	private void churnWeakListeners() {
+		final var weakListeners = topology.weakListeners();
+		if (weakListeners == 0) {
+			return;
+		}
+		final var periodInNanoseconds = SECONDS.toNanos(1) / weakListeners;
+		while (running) {
+			final var leaf = leaves.get(current().nextInt(leaves.size()));
+			leaf.listenWith(new WeakSynchronousListener<Sample>() {
+				@Override
+				public void onUpdate(Sample before, Sample after) {
+					numberOfDeliveries.increment();
+				}
+			});
+			numberOfWeakListeners.increment();
+			parkNanos(periodInNanoseconds);
+		}
+	}
+
+	private static long getAllocatedBytes() {
+		final var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		var total = 0L;
+		for (final var allocatedBytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+			if (allocatedBytes > 0) {
+				total += allocatedBytes;
+			}
+		}
+		return total;
+	}
+
+	private static long getHeapUsedAfterLastCollection() {
+		var total = 0L;
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+				total += pool.getCollectionUsage().getUsed();
+			}
+		}
+		return total;
+	}
+
+	private static final double MICROSECONDS = 1_000;
+	private static final double MEGABYTES = 1 << 20;
+
+	private void report() throws InterruptedException {
+		System.out.printf(
+			"%10s %12s %12s %10s %10s %10s %10s %12s %10s %14s %10s%n",
+			"seconds",
+			"updates/s",
+			"deliveries/s",
+			"p50 (us)",
+			"p99 (us)",
+			"p99.9 (us)",
+			"max (us)",
+			"alloc (MB/s)",
+			"heap (MB)",
+			"after GC (MB)",
+			"weak"
+		);
+		final var total = new Histogram(3);
+		final var start = nanoTime();
+		final var end = start + topology.duration().toNanos();
+		final var interval = topology.interval().toNanos();
+		var previousTime = start;
+		var previousUpdates = 0L;
+		var previousDeliveries = 0L;
+		var previousAllocatedBytes = getAllocatedBytes();
+		Histogram histogram = null;
+		while (true) {
+			final var remaining = end - nanoTime();
+			if (remaining <= 0) {
+				break;
+			}
+			NANOSECONDS.sleep(Math.min(interval, remaining));
+			final var now = nanoTime();
+			final var seconds = (now - previousTime) / 1e9;
+			final var updates = numberOfUpdates.sum();
+			final var deliveries = numberOfDeliveries.sum();
+			final var allocatedBytes = getAllocatedBytes();
+			histogram = latencies.getIntervalHistogram(histogram);
+			total.add(histogram);
+			System.out.printf(
+				"%10.1f %12.0f %12.0f %10.1f %10.1f %10.1f %10.1f %12.1f %10.1f %14.1f %10d%n",
+				(now - start) / 1e9,
+				(updates - previousUpdates) / seconds,
+				(deliveries - previousDeliveries) / seconds,
+				histogram.getValueAtPercentile(50) / MICROSECONDS,
+				histogram.getValueAtPercentile(99) / MICROSECONDS,
+				histogram.getValueAtPercentile(99.9) / MICROSECONDS,
+				histogram.getMaxValue() / MICROSECONDS,
+				(allocatedBytes - previousAllocatedBytes) / MEGABYTES / seconds,
+				ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / MEGABYTES,
+				getHeapUsedAfterLastCollection() / MEGABYTES,
+				numberOfWeakListeners.sum()
+			);
+			previousTime = now;
+			previousUpdates = updates;
+			previousDeliveries = deliveries;
+			previousAllocatedBytes = allocatedBytes;
+		}
+		System.out.println();
+		System.out.println("Propagation latency over the whole run, in microseconds:");
+		total.outputPercentileDistribution(System.out, 5, MICROSECONDS);
+	}
+
+	public static void main(String ... arguments) throws Exception {
+		final var topology = parseTopology(arguments);
+		System.out.println(topology);
+		System.out.printf(
+			"Each update reaches %d leaves and %d strong listeners%n",
+			topology.numberOfLeavesPerSource(),
+			(long) topology.numberOfLeavesPerSource() * topology.strongListeners()
+		);
+		final Executor executor;
+		final PartitionedExecutor partitionedExecutor;
+		if (topology.partitions() == 0) {
+			partitionedExecutor = null;
+			executor = Runnable::run;
+		} else {
+			partitionedExecutor = new PartitionedExecutor(topology.partitions(), 1 << 16);
+			executor = partitionedExecutor;
+		}
+		final var loadTest = new LoadTest(topology, executor);
+		final var driver = new Thread(loadTest::drive, "Load Driver");
+		final var churner = new Thread(loadTest::churnWeakListeners, "Weak Listener Churner");
+		driver.start();
+		churner.start();
+		try {
+			loadTest.report();
+		} finally {
+			loadTest.running = false;
+			driver.join();
+			churner.join();
+			if (partitionedExecutor != null) {
+				partitionedExecutor.close();
+			}
+		}
+		if (currentThread().isInterrupted()) {
+			throw new InterruptedException();
+		}
+	}
+
+}
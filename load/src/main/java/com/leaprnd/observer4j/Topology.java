@@ -0,0 +1,107 @@
+package com.leaprnd.observer4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+
+import static java.lang.Integer.parseInt;
+import static java.lang.Math.multiplyExact;
+import static java.time.Duration.parse;
+
+/**
+ * The shape of the graph built by {@link LoadTest} and how hard it is driven.
+ *
+ * @param sources         The number of {@link AbstractListenable}s that are
+ *                        updated directly.
+ * @param depth           The number of levels of adapters below each source.
+ * @param fanOut          The number of adapters that listen to each listenable
+ *                        on the level above.
+ * @param strongListeners The number of strong listeners on each leaf, which
+ *                        record the propagation latency.
+ * @param weakListeners   The number of short-lived weak listeners added to
+ *                        random leaves every second and then dropped.
+ * @param rate            The target number of updates per second.
+ * @param partitions      The number of partitions of the
+ *                        {@link PartitionedExecutor} that drives the graph, or
+ *                        zero to propagate on the updating thread.
+ * @param duration        How long to run for.
+ * @param interval        How often to report.
+ */
+record Topology(
+	int sources,
+	int depth,
+	int fanOut,
+	int strongListeners,
+	int weakListeners,
+	int rate,
+	int partitions,
+	Duration duration,
+	Duration interval
+) {
+
+	public Topology {
+		if (sources < 1 || depth < 0 || fanOut < 1 || strongListeners < 1 || weakListeners < 0 || rate < 1) {
+			throw new IllegalArgumentException("Invalid topology!");
+		}
+		if (partitions < 0 || duration.isNegative() || interval.isNegative() || interval.isZero()) {
+			throw new IllegalArgumentException("Invalid topology!");
+		}
+	}
+
+	/**
+	 * Parses arguments such as {@code depth=4 fanOut=2 duration=PT1H}. Arguments
+	 * may also be separated by commas. Omitted values keep their defaults.
+	 */
+	public static Topology parseTopology(String ... arguments) {
+		final var values = new HashMap<String, String>();
+		for (final var argument : arguments) {
+			for (final var pair : argument.split(",")) {
+				if (pair.isBlank()) {
+					continue;
+				}
+				final var index = pair.indexOf('=');
+				if (index < 0) {
+					throw new IllegalArgumentException("Expected key=value but found " + pair + "!");
+				}
+				values.put(pair.substring(0, index).strip(), pair.substring(index + 1).strip());
+			}
+		}
+		final var topology = new Topology(
+			parseInt(values.getOrDefault("sources", "8")),
+			parseInt(values.getOrDefault("depth", "3")),
+			parseInt(values.getOrDefault("fanOut", "2")),
+			parseInt(values.getOrDefault("strongListeners", "4")),
+			parseInt(values.getOrDefault("weakListeners", "1000")),
+			parseInt(values.getOrDefault("rate", "10000")),
+			parseInt(values.getOrDefault("partitions", "0")),
+			parse(values.getOrDefault("duration", "PT1M")),
+			parse(values.getOrDefault("interval", "PT10S"))
+		);
+		values.keySet().removeAll(
+			List.of(
+				"sources",
+				"depth",
+				"fanOut",
+				"strongListeners",
+				"weakListeners",
+				"rate",
+				"partitions",
+				"duration",
+				"interval"
+			)
+		);
+		if (!values.isEmpty()) {
+			throw new IllegalArgumentException("Unknown options " + values.keySet() + "!");
+		}
+		return topology;
+	}
+
+	public int numberOfLeavesPerSource() {
+		var leaves = 1;
+		for (var level = 0; level < depth; level ++) {
+			leaves = multiplyExact(leaves, fanOut);
+		}
+		return leaves;
+	}
+
+}
@@ -0,0 +1,171 @@
+package com.leaprnd.observer4j;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.Integer.parseInt;
+import static java.lang.System.nanoTime;
+import static java.util.Arrays.sort;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static javax.tools.JavaFileObject.Kind.SOURCE;
+
+/**
+ * Compiles a synthetic hierarchy of interfaces, with and without the
+ * {@link AnnotationProcessor}, and prints the median time of each. Every
+ * interface extends several interfaces of the level below, so the hierarchies
+ * contain many diamonds, and a fifth of the methods are annotated with
+ * {@link Forward}. A forwarder is generated for every interface of the top
+ * level.
+ */
+public final class AnnotationProcessorBenchmark {
+
+	private record Options(int levels, int width, int parents, int methods, int iterations) {
+
+		private static Options parse(String ... arguments) {
+			final var values = new HashMap<>(
+				Map.of("levels", "6", "width", "20", "parents", "3", "methods", "10", "iterations", "10")
+			);
+			for (final var argument : arguments) {
+				final var separator = argument.indexOf('=');
+				if (separator < 0 || !values.containsKey(argument.substring(0, separator))) {
+					throw new IllegalArgumentException("Unexpected argument: " + argument + "!");
+				}
+				values.put(argument.substring(0, separator), argument.substring(separator + 1));
+			}
+			return new Options(
+				parseInt(values.get("levels")),
+				parseInt(values.get("width")),
+				parseInt(values.get("parents")),
+				parseInt(values.get("methods")),
+				parseInt(values.get("iterations"))
+			);
+		}
+
+	}
+
+	private static final class Source extends SimpleJavaFileObject {
+
+		private final String code;
+
+		private Source(String simpleName, String code) {
+			super(URI.create("string:///com/leaprnd/observer4j/benchmark/" + simpleName + ".java"), SOURCE);
+			this.code = code;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return code;
+		}
+
+	}
+
+	private static String nameOf(int level, int index) {
+		return "Level" + level + "Interface" + index;
+	}
+
+	private static List<JavaFileObject> generate(Options options) {
+		final var sources = new ArrayList<JavaFileObject>();
+		for (var level = 0; level < options.levels(); level ++) {
+			for (var index = 0; index < options.width(); index ++) {
+				final var name = nameOf(level, index);
+				final var code = new StringBuilder("package com.leaprnd.observer4j.benchmark;\n\n");
+				code.append("import com.leaprnd.observer4j.*;\n\n");
+				if (level == options.levels() - 1) {
+					code.append("@GenerateSubstitutableForwarder(name = \"").append(name).append("Forwarder\", ");
+					code.append("delegate = ").append(name).append(".class)\n");
+				}
+				code.append("public interface ").append(name);
+				if (level > 0) {
+					code.append(" extends ");
+					for (var parent = 0; parent < options.parents(); parent ++) {
+						if (parent > 0) {
+							code.append(", ");
+						}
+						code.append(nameOf(level - 1, (index + parent) % options.width()));
+					}
+				}
+				code.append(" {\n");
+				for (var method = 0; method < options.methods(); method ++) {
+					if (method % 5 == 0) {
+						code.append("\t@Forward(ForwardStrategy.FORWARD_AFTER_MARKING_EVERY_FIELD_AS_ACCESSED)\n");
+					}
+					code.append("\tlong valueOf").append(name).append("Method").append(method).append("();\n");
+				}
+				code.append("}\n");
+				sources.add(new Source(name, code.toString()));
+			}
+		}
+		return sources;
+	}
+
+	private static long compile(List<JavaFileObject> sources, boolean process) throws IOException {
+		final var directory = Files.createTempDirectory("observer4j-benchmark");
+		try {
+			final var compiler = ToolProvider.getSystemJavaCompiler();
+			final var options = new ArrayList<String>();
+			options.add("-d");
+			options.add(directory.toString());
+			options.add("-s");
+			options.add(directory.toString());
+			options.add("-classpath");
+			options.add(System.getProperty("java.class.path"));
+			if (!process) {
+				options.add("-proc:none");
+			}
+			final var task = compiler.getTask(null, null, null, options, null, sources);
+			if (process) {
+				task.setProcessors(List.of(new AnnotationProcessor()));
+			}
+			final var start = nanoTime();
+			if (!task.call()) {
+				throw new IllegalStateException("The synthetic hierarchy did not compile!");
+			}
+			return nanoTime() - start;
+		} finally {
+			delete(directory);
+		}
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (final var paths = Files.walk(directory)) {
+			for (final var path : paths.sorted((first, second) -> second.compareTo(first)).toList()) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	private static double median(long[] durations) {
+		sort(durations);
+		return NANOSECONDS.toMicros(durations[durations.length / 2]) / 1000.0;
+	}
+
+	public static void main(String ... arguments) throws IOException {
+		final var options = Options.parse(arguments);
+		System.out.println(options);
+		final var sources = generate(options);
+		final var withoutProcessor = new long[options.iterations()];
+		final var withProcessor = new long[options.iterations()];
+		compile(sources, false);
+		compile(sources, true);
+		for (var iteration = 0; iteration < options.iterations(); iteration ++) {
+			withoutProcessor[iteration] = compile(sources, false);
+			withProcessor[iteration] = compile(sources, true);
+		}
+		final var medianWithoutProcessor = median(withoutProcessor);
+		final var medianWithProcessor = median(withProcessor);
+		System.out.printf("Without the processor: %.1f ms%n", medianWithoutProcessor);
+		System.out.printf("With the processor:    %.1f ms%n", medianWithProcessor);
+		System.out.printf("Processor overhead:    %.1f ms%n", medianWithProcessor - medianWithoutProcessor);
+	}
+
+}
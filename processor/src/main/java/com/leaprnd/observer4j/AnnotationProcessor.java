@@ -1,11 +1,14 @@
 package com.leaprnd.observer4j;
 
 import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
 import javax.annotation.Generated;
@@ -16,6 +19,7 @@ import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
@@ -23,7 +27,13 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -38,6 +48,8 @@ import static com.squareup.javapoet.TypeName.BOOLEAN;
 import static com.squareup.javapoet.TypeName.INT;
 import static java.lang.String.format;
 import static javax.lang.model.SourceVersion.RELEASE_17;
+import static javax.lang.model.element.ElementKind.ENUM;
+import static javax.lang.model.element.Modifier.ABSTRACT;
 import static javax.lang.model.element.Modifier.DEFAULT;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.NATIVE;
@@ -45,7 +57,7 @@ import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PROTECTED;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
-import static javax.lang.model.type.TypeKind.NONE;
+import static javax.lang.model.type.TypeKind.DECLARED;
 import static javax.lang.model.type.TypeKind.TYPEVAR;
 import static javax.lang.model.type.TypeKind.VOID;
 import static javax.tools.Diagnostic.Kind.ERROR;
@@ -61,14 +73,31 @@ public class AnnotationProcessor extends AbstractProcessor {
 
 	private static final ClassName ABSTRACT_LISTENABLE_PROPERTIES = ClassName
 		.get("com.leaprnd.observer4j", "AbstractSubstitutableForwarder");
+	private static final ClassName FIELD_CODEC = ClassName.get("com.leaprnd.observer4j", "FieldCodec");
+	private static final ClassName CODECS = ClassName.get("com.leaprnd.observer4j", "Codecs");
 
 	@Override
 	public Set<String> getSupportedAnnotationTypes() {
 		return Collections.singleton(GenerateSubstitutableForwarder.class.getName());
 	}
 
+	private record ForwardAnnotation(TypeElement owner, ExecutableElement method, ForwardStrategy strategy) {}
+
+	/**
+	 * The {@link Forward} annotations of every type in the hierarchy of each type,
+	 * in the order they should be searched. Elements are only valid for the round
+	 * that produced them, so this is cleared at the start of every round.
+	 */
+	private final Map<TypeElement, List<ForwardAnnotation>> forwardAnnotationsByType = new HashMap<>();
+	private TypeElement forwardAnnotationType;
+	private TypeElement generateSubstitutableForwarderAnnotationType;
+
 	@Override
 	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		forwardAnnotationsByType.clear();
+		forwardAnnotationType = getElementUtils().getTypeElement(FORWARD_ANNOTATION);
+		generateSubstitutableForwarderAnnotationType = getElementUtils()
+			.getTypeElement(GenerateSubstitutableForwarder.class.getName());
 		for (final var element : roundEnv.getElementsAnnotatedWith(GenerateSubstitutableForwarder.class)) {
 			if (element instanceof final TypeElement typeElement) {
 				try {
@@ -83,7 +112,7 @@ public class AnnotationProcessor extends AbstractProcessor {
 		return true;
 	}
 
-	private record Specification(ClassName forwarderType, TypeElement delegateType) {
+	private record Specification(ClassName forwarderType, TypeElement delegateType, ClassName codecType) {
 		public MethodSpec buildConstructor() {
 			final var delegateTypeName = ClassName.get(delegateType);
 			return constructorBuilder()
@@ -99,13 +128,22 @@ public class AnnotationProcessor extends AbstractProcessor {
 		final var annotation = getGenerateSubstitutableForwarderAnnotationOf(typeElement);
 		final var packageName = getElementUtils().getPackageOf(typeElement).getQualifiedName().toString();
 		final var values = utils.getElementValuesWithDefaults(annotation);
-		return new Specification(ClassName.get(packageName, getNameFrom(values)), getTypeFrom(values));
+		final var codecName = getCodecNameFrom(values);
+		return new Specification(
+			ClassName.get(packageName, getNameFrom(values)),
+			getTypeFrom(values),
+			codecName.isEmpty() ? null : ClassName.get(packageName, codecName)
+		);
 	}
 
 	private String getNameFrom(Map<? extends ExecutableElement, ? extends AnnotationValue> values) {
 		return (String) getValue(values, "name");
 	}
 
+	private String getCodecNameFrom(Map<? extends ExecutableElement, ? extends AnnotationValue> values) {
+		return (String) getValue(values, "codec");
+	}
+
 	private TypeElement getTypeFrom(Map<? extends ExecutableElement, ? extends AnnotationValue> values) {
 		return (TypeElement) ((DeclaredType) getValue(values, "delegate")).asElement();
 	}
@@ -132,80 +170,77 @@ public class AnnotationProcessor extends AbstractProcessor {
 			.addSuperinterface(delegateTypeName)
 			.addAnnotation(AnnotationSpec.builder(Generated.class).addMember("value", "$S", getClass().getName()).build())
 			.addMethod(specification.buildConstructor());
-		int index = 0;
+		final var members = getMembersOf(delegateType);
 		final var areFieldsEqualBuilder = CodeBlock.builder().beginControlFlow("return switch (indexOfField)");
-		for (final var element : getElementUtils().getAllMembers(delegateType)) {
-			if (element instanceof final ExecutableElement method) {
-				final var solution = chooseSolutionFor(delegateType, method);
-				if (solution == DO_NOT_FORWARD) {
-					continue;
-				}
-				final var methodName = method.getSimpleName();
-				final var methodBuilder = MethodSpec.overriding(method).addModifiers(FINAL);
-				switch (solution) {
-					case FORWARD_WITHOUT_MARKING_ANY_FIELDS_AS_ACCESSED: {
-						final var statement = new StringBuilder();
-						if (method.getReturnType().getKind() != VOID) {
-							statement.append("return ");
-						}
-						statement.append("getDelegateWithoutRecordingAccess().$N(");
-						for (final var iterator = method.getParameters().iterator(); iterator.hasNext();) {
-							statement.append(iterator.next().getSimpleName());
-							if (iterator.hasNext()) {
-								statement.append(", ");
-							}
-						}
-						statement.append(")");
-						methodBuilder.addStatement(statement.toString(), methodName);
-						break;
+		var numberOfFields = 0;
+		for (final var member : members) {
+			final var method = member.method();
+			final var methodName = method.getSimpleName();
+			final var methodBuilder = MethodSpec.overriding(method).addModifiers(FINAL);
+			switch (member.strategy()) {
+				case FORWARD_WITHOUT_MARKING_ANY_FIELDS_AS_ACCESSED: {
+					final var statement = new StringBuilder();
+					if (method.getReturnType().getKind() != VOID) {
+						statement.append("return ");
 					}
-					case FORWARD_AFTER_MARKING_FIELD_AS_ACCESSED: {
-						final var indexOfField = index ++;
-						if (method.getReturnType().getKind().isPrimitive()) {
-							areFieldsEqualBuilder
-								.addStatement("case $L -> newDelegate.$N() == oldDelegate.$N()", indexOfField, methodName, methodName);
-						} else {
-							areFieldsEqualBuilder
-								.addStatement(
-									"case $L -> $T.equals(newDelegate.$N(), oldDelegate.$N())",
-									indexOfField,
-									Objects.class,
-									methodName,
-									methodName
-								);
+					statement.append("getDelegateWithoutRecordingAccess().$N(");
+					for (final var iterator = method.getParameters().iterator(); iterator.hasNext();) {
+						statement.append(iterator.next().getSimpleName());
+						if (iterator.hasNext()) {
+							statement.append(", ");
 						}
-						methodBuilder.addStatement("return recordAccessToField($L).$N()", indexOfField, methodName);
-						break;
 					}
-					case FORWARD_AFTER_MARKING_EVERY_FIELD_AS_ACCESSED: {
-						final var statement = new StringBuilder();
-						if (method.getReturnType().getKind() != VOID) {
-							statement.append("return ");
-						}
-						statement.append("recordAccessToEveryField().$N(");
-						for (final var iterator = method.getParameters().iterator(); iterator.hasNext();) {
-							statement.append(iterator.next().getSimpleName());
-							if (iterator.hasNext()) {
-								statement.append(", ");
-							}
+					statement.append(")");
+					methodBuilder.addStatement(statement.toString(), methodName);
+					break;
+				}
+				case FORWARD_AFTER_MARKING_FIELD_AS_ACCESSED: {
+					final var indexOfField = member.indexOfField();
+					numberOfFields ++;
+					if (method.getReturnType().getKind().isPrimitive()) {
+						areFieldsEqualBuilder
+							.addStatement("case $L -> newDelegate.$N() == oldDelegate.$N()", indexOfField, methodName, methodName);
+					} else {
+						areFieldsEqualBuilder
+							.addStatement(
+								"case $L -> $T.equals(newDelegate.$N(), oldDelegate.$N())",
+								indexOfField,
+								Objects.class,
+								methodName,
+								methodName
+							);
+					}
+					methodBuilder.addStatement("return recordAccessToField($L).$N()", indexOfField, methodName);
+					break;
+				}
+				case FORWARD_AFTER_MARKING_EVERY_FIELD_AS_ACCESSED: {
+					final var statement = new StringBuilder();
+					if (method.getReturnType().getKind() != VOID) {
+						statement.append("return ");
+					}
+					statement.append("recordAccessToEveryField().$N(");
+					for (final var iterator = method.getParameters().iterator(); iterator.hasNext();) {
+						statement.append(iterator.next().getSimpleName());
+						if (iterator.hasNext()) {
+							statement.append(", ");
 						}
-						statement.append(")");
-						methodBuilder.addStatement(statement.toString(), methodName);
-						break;
 					}
-					default:
-						continue;
+					statement.append(")");
+					methodBuilder.addStatement(statement.toString(), methodName);
+					break;
 				}
-				final var returnType = method.getReturnType();
-				if (returnType.getKind() == TYPEVAR) {
-					error(
-						"Methods that return a type variable are not yet supported by @GenerateSubstitutableForwarder!",
-						typeElement
-					);
+				default:
+					continue;
+			}
+			final var returnType = method.getReturnType();
+			if (returnType.getKind() == TYPEVAR) {
+				error(
+					"Methods that return a type variable are not yet supported by @GenerateSubstitutableForwarder!",
+					typeElement
+				);
 
-				} else {
-					typeBuilder.addMethod(methodBuilder.build());
-				}
+			} else {
+				typeBuilder.addMethod(methodBuilder.build());
 			}
 		}
 		areFieldsEqualBuilder.addStatement("default -> throw new $T()", IndexOutOfBoundsException.class).endControlFlow("");
@@ -215,7 +250,7 @@ public class AnnotationProcessor extends AbstractProcessor {
 					.addAnnotation(Override.class)
 					.addModifiers(PROTECTED, FINAL)
 					.returns(INT)
-					.addStatement("return $L", index)
+					.addStatement("return $L", numberOfFields)
 					.build()
 			);
 		typeBuilder
@@ -237,6 +272,397 @@ public class AnnotationProcessor extends AbstractProcessor {
 			.build();
 		javaFile.toJavaFileObject().delete();
 		javaFile.writeTo(processingEnv.getFiler());
+		if (specification.codecType() != null) {
+			generateCodec(typeElement, specification, members);
+		}
+	}
+
+	private record Member(ExecutableElement method, ForwardStrategy strategy, int indexOfField) {}
+
+	private List<Member> getMembersOf(TypeElement delegateType) {
+		final var members = new ArrayList<Member>();
+		var index = 0;
+		for (final var element : getElementUtils().getAllMembers(delegateType)) {
+			if (element instanceof final ExecutableElement method) {
+				final var strategy = chooseSolutionFor(delegateType, method);
+				if (strategy == DO_NOT_FORWARD) {
+					continue;
+				}
+				final var indexOfField = strategy == FORWARD_AFTER_MARKING_FIELD_AS_ACCESSED ? index ++ : -1;
+				members.add(new Member(method, strategy, indexOfField));
+			}
+		}
+		return members;
+	}
+
+	private enum FieldKind {
+
+		BOOLEAN(1, ""),
+		BYTE(1, ""),
+		SHORT(2, "Short"),
+		CHAR(2, "Char"),
+		INT(4, "Int"),
+		LONG(8, "Long"),
+		FLOAT(4, "Float"),
+		DOUBLE(8, "Double"),
+		STRING(-1, null),
+		ENUM(4, null);
+
+		private final int size;
+		private final String suffix;
+
+		FieldKind(int size, String suffix) {
+			this.size = size;
+			this.suffix = suffix;
+		}
+
+	}
+
+	private record Field(ExecutableElement method, int indexOfField, FieldKind kind) {
+
+		public Name name() {
+			return method.getSimpleName();
+		}
+
+		public TypeName type() {
+			return TypeName.get(method.getReturnType());
+		}
+
+		public int flag() {
+			return 1 << indexOfField;
+		}
+
+		public String nameOfFlag() {
+			return "FLAG_OF_" + toConstantName(name().toString());
+		}
+
+		public String nameOfValues() {
+			return "VALUES_OF_FIELD_" + indexOfField;
+		}
+
+		public CodeBlock sizeOf(String value) {
+			if (kind == FieldKind.STRING) {
+				return CodeBlock.of("$T.sizeOf($N.$N())", CODECS, value, name());
+			}
+			return CodeBlock.of("$L", kind.size);
+		}
+
+		public CodeBlock put(String value) {
+			return switch (kind) {
+				case BOOLEAN -> CodeBlock.of("buffer.put((byte) ($N.$N() ? 1 : 0))", value, name());
+				case STRING, ENUM -> CodeBlock.of("$T.put(buffer, $N.$N())", CODECS, value, name());
+				default -> CodeBlock.of("buffer.put$L($N.$N())", kind.suffix, value, name());
+			};
+		}
+
+		public CodeBlock get() {
+			return switch (kind) {
+				case BOOLEAN -> CodeBlock.of("buffer.get() != 0");
+				case STRING -> CodeBlock.of("$T.getString(buffer)", CODECS);
+				case ENUM -> CodeBlock.of("$T.getEnum(buffer, $N)", CODECS, nameOfValues());
+				default -> CodeBlock.of("buffer.get$L()", kind.suffix);
+			};
+		}
+
+		public CodeBlock isNotEqual(String oldValue, String newValue) {
+			return switch (kind) {
+				case FLOAT, DOUBLE -> CodeBlock
+					.of("$T.compare($N.$N(), $N.$N()) != 0", type().box(), newValue, name(), oldValue, name());
+				case STRING, ENUM -> CodeBlock
+					.of("!$T.equals($N.$N(), $N.$N())", Objects.class, newValue, name(), oldValue, name());
+				default -> CodeBlock.of("$N.$N() != $N.$N()", newValue, name(), oldValue, name());
+			};
+		}
+
+		public CodeBlock isEqualTo(String other) {
+			return switch (kind) {
+				case FLOAT, DOUBLE -> CodeBlock.of("$T.compare($N, $N.$N) == 0", type().box(), name(), other, name());
+				case STRING, ENUM -> CodeBlock.of("$T.equals($N, $N.$N)", Objects.class, name(), other, name());
+				default -> CodeBlock.of("$N == $N.$N", name(), other, name());
+			};
+		}
+
+		public CodeBlock hashCodeOf() {
+			return switch (kind) {
+				case STRING, ENUM -> CodeBlock.of("$T.hashCode($N)", Objects.class, name());
+				default -> CodeBlock.of("$T.hashCode($N)", type().box(), name());
+			};
+		}
+
+	}
+
+	private FieldKind getFieldKindOf(TypeMirror type) {
+		return switch (type.getKind()) {
+			case BOOLEAN -> FieldKind.BOOLEAN;
+			case BYTE -> FieldKind.BYTE;
+			case SHORT -> FieldKind.SHORT;
+			case CHAR -> FieldKind.CHAR;
+			case INT -> FieldKind.INT;
+			case LONG -> FieldKind.LONG;
+			case FLOAT -> FieldKind.FLOAT;
+			case DOUBLE -> FieldKind.DOUBLE;
+			case DECLARED -> {
+				final var element = ((DeclaredType) type).asElement();
+				if (element.getKind() == ENUM) {
+					yield FieldKind.ENUM;
+				}
+				if (element.equals(getElementUtils().getTypeElement(String.class.getName()))) {
+					yield FieldKind.STRING;
+				}
+				yield null;
+			}
+			default -> null;
+		};
+	}
+
+	private void generateCodec(TypeElement typeElement, Specification specification, List<Member> members)
+		throws IOException {
+		final var codecType = specification.codecType();
+		final var delegateType = specification.delegateType();
+		final var delegateTypeName = ClassName.get(delegateType);
+		final var valueType = codecType.nestedClass("Value");
+		final var fields = new ArrayList<Field>();
+		for (final var member : members) {
+			final var method = member.method();
+			if (member.strategy() != FORWARD_AFTER_MARKING_FIELD_AS_ACCESSED) {
+				if (method.getModifiers().contains(ABSTRACT)) {
+					error(format("%s() cannot be decoded because it is not a field!", method.getSimpleName()), typeElement);
+					return;
+				}
+				continue;
+			}
+			final var kind = getFieldKindOf(method.getReturnType());
+			if (kind == null) {
+				error(
+					format("The type of %s() is not yet supported by generated codecs!", method.getSimpleName()),
+					typeElement
+				);
+				return;
+			}
+			fields.add(new Field(method, member.indexOfField(), kind));
+		}
+		final var typeBuilder = TypeSpec
+			.enumBuilder(codecType)
+			.addModifiers(PUBLIC)
+			.addOriginatingElement(typeElement)
+			.addSuperinterface(ParameterizedTypeName.get(FIELD_CODEC, delegateTypeName))
+			.addAnnotation(AnnotationSpec.builder(Generated.class).addMember("value", "$S", getClass().getName()).build())
+			.addEnumConstant(toConstantName(codecType.simpleName()));
+		for (final var field : fields) {
+			typeBuilder
+				.addField(
+					FieldSpec
+						.builder(INT, field.nameOfFlag(), PUBLIC, STATIC, FINAL)
+						.initializer("$L", field.flag())
+						.build()
+				);
+			if (field.kind() == FieldKind.ENUM) {
+				final var enumType = ArrayTypeName.of(field.type());
+				typeBuilder
+					.addField(
+						FieldSpec
+							.builder(enumType, field.nameOfValues(), PRIVATE, STATIC, FINAL)
+							.initializer("$T.values()", field.type())
+							.build()
+					);
+			}
+		}
+		final var sizeOfEveryField = CodeBlock.builder();
+		final var encodeEveryField = CodeBlock.builder();
+		final var decodeEveryField = CodeBlock.builder();
+		final var getFlagsOfChangedFields = CodeBlock.builder().addStatement("var flagsOfFields = 0");
+		final var sizeOfSomeFields = CodeBlock.builder().addStatement("var size = $T.BYTES", Integer.class);
+		final var encodeSomeFields = CodeBlock.builder().addStatement("buffer.putInt(flagsOfFields)");
+		final var decodeSomeFields = CodeBlock.builder();
+		var fixedSize = 0;
+		for (final var field : fields) {
+			if (field.kind() == FieldKind.STRING) {
+				sizeOfEveryField.add(" + $L", field.sizeOf("value"));
+			} else {
+				fixedSize += field.kind().size;
+			}
+			encodeEveryField.addStatement(field.put("value"));
+			if (decodeEveryField.isEmpty()) {
+				decodeEveryField.add("$L", field.get());
+			} else {
+				decodeEveryField.add(",\n$L", field.get());
+			}
+			getFlagsOfChangedFields
+				.beginControlFlow("if ($L)", field.isNotEqual("oldValue", "newValue"))
+				.addStatement("flagsOfFields |= $L", field.flag())
+				.endControlFlow();
+			sizeOfSomeFields
+				.beginControlFlow("if ((flagsOfFields & $L) != 0)", field.flag())
+				.addStatement("size += $L", field.sizeOf("value"))
+				.endControlFlow();
+			encodeSomeFields
+				.beginControlFlow("if ((flagsOfFields & $L) != 0)", field.flag())
+				.addStatement(field.put("value"))
+				.endControlFlow();
+			if (!decodeSomeFields.isEmpty()) {
+				decodeSomeFields.add(",\n");
+			}
+			decodeSomeFields.add("(flagsOfFields & $L) != 0 ? $L : baseValue.$N()", field.flag(), field.get(), field.name());
+		}
+		typeBuilder
+			.addMethod(
+				methodBuilder("getNumberOfFields")
+					.addAnnotation(Override.class)
+					.addModifiers(PUBLIC)
+					.returns(INT)
+					.addStatement("return $L", fields.size())
+					.build()
+			)
+			.addMethod(
+				methodBuilder("sizeOf")
+					.addAnnotation(Override.class)
+					.addModifiers(PUBLIC)
+					.addParameter(delegateTypeName, "value")
+					.returns(INT)
+					.addStatement("return $L$L", fixedSize, sizeOfEveryField.build())
+					.build()
+			)
+			.addMethod(
+				methodBuilder("encode")
+					.addAnnotation(Override.class)
+					.addModifiers(PUBLIC)
+					.addParameter(delegateTypeName, "value")
+					.addParameter(ByteBuffer.class, "buffer")
+					.addCode(encodeEveryField.build())
+					.build()
+			)
+			.addMethod(
+				methodBuilder("decode")
+					.addAnnotation(Override.class)
+					.addModifiers(PUBLIC)
+					.addParameter(ByteBuffer.class, "buffer")
+					.returns(delegateTypeName)
+					.addStatement("return new $T(\n$L\n)", valueType, decodeEveryField.build())
+					.build()
+			)
+			.addMethod(
+				methodBuilder("getFlagsOfChangedFields")
+					.addAnnotation(Override.class)
+					.addModifiers(PUBLIC)
+					.addParameter(delegateTypeName, "oldValue")
+					.addParameter(delegateTypeName, "newValue")
+					.returns(INT)
+					.addCode(getFlagsOfChangedFields.addStatement("return flagsOfFields").build())
+					.build()
+			)
+			.addMethod(
+				methodBuilder("sizeOf")
+					.addAnnotation(Override.class)
+					.addModifiers(PUBLIC)
+					.addParameter(delegateTypeName, "value")
+					.addParameter(INT, "flagsOfFields")
+					.returns(INT)
+					.addCode(sizeOfSomeFields.addStatement("return size").build())
+					.build()
+			)
+			.addMethod(
+				methodBuilder("encode")
+					.addAnnotation(Override.class)
+					.addModifiers(PUBLIC)
+					.addParameter(delegateTypeName, "value")
+					.addParameter(INT, "flagsOfFields")
+					.addParameter(ByteBuffer.class, "buffer")
+					.addCode(encodeSomeFields.build())
+					.build()
+			)
+			.addMethod(
+				methodBuilder("decode")
+					.addAnnotation(Override.class)
+					.addModifiers(PUBLIC)
+					.addParameter(delegateTypeName, "baseValue")
+					.addParameter(ByteBuffer.class, "buffer")
+					.returns(delegateTypeName)
+					.addStatement("final var flagsOfFields = buffer.getInt()")
+					.addStatement("return new $T(\n$L\n)", valueType, decodeSomeFields.build())
+					.build()
+			)
+			.addType(buildValueType(delegateType, fields));
+		final var javaFile = JavaFile
+			.builder(codecType.packageName(), typeBuilder.build())
+			.skipJavaLangImports(true)
+			.indent("\t")
+			.build();
+		javaFile.writeTo(processingEnv.getFiler());
+	}
+
+	private TypeSpec buildValueType(TypeElement delegateType, List<Field> fields) {
+		final var constructorBuilder = constructorBuilder().addModifiers(PUBLIC);
+		final var typeBuilder = TypeSpec
+			.classBuilder("Value")
+			.addModifiers(PUBLIC, STATIC, FINAL)
+			.addSuperinterface(ClassName.get(delegateType));
+		final var equals = CodeBlock.builder();
+		final var hashCode = CodeBlock.builder().addStatement("var hashCode = 0");
+		final var toString = CodeBlock.builder().add("$S", delegateType.getSimpleName() + "[");
+		for (final var field : fields) {
+			final var name = field.name();
+			final var type = field.type();
+			typeBuilder.addField(type, name.toString(), PRIVATE, FINAL);
+			constructorBuilder.addParameter(type, name.toString()).addStatement("this.$N = $N", name, name);
+			typeBuilder
+				.addMethod(
+					methodBuilder(name.toString())
+						.addAnnotation(Override.class)
+						.addModifiers(PUBLIC)
+						.returns(type)
+						.addStatement("return $N", name)
+						.build()
+				);
+			if (equals.isEmpty()) {
+				equals.add("$L", field.isEqualTo("that"));
+				toString.add(" + $S + $N", name + "=", name);
+			} else {
+				equals.add(" && $L", field.isEqualTo("that"));
+				toString.add(" + $S + $N", ", " + name + "=", name);
+			}
+			hashCode.addStatement("hashCode = 31 * hashCode + $L", field.hashCodeOf());
+		}
+		if (equals.isEmpty()) {
+			equals.add("true");
+		}
+		return typeBuilder
+			.addMethod(constructorBuilder.build())
+			.addMethod(
+				methodBuilder("equals")
+					.addAnnotation(Override.class)
+					.addModifiers(PUBLIC)
+					.addParameter(Object.class, "other")
+					.returns(BOOLEAN)
+					.beginControlFlow("if (other == this)")
+					.addStatement("return true")
+					.endControlFlow()
+					.beginControlFlow("if (other instanceof $N that)", "Value")
+					.addStatement("return $L", equals.build())
+					.endControlFlow()
+					.addStatement("return false")
+					.build()
+			)
+			.addMethod(
+				methodBuilder("hashCode")
+					.addAnnotation(Override.class)
+					.addModifiers(PUBLIC)
+					.returns(INT)
+					.addCode(hashCode.addStatement("return hashCode").build())
+					.build()
+			)
+			.addMethod(
+				methodBuilder("toString")
+					.addAnnotation(Override.class)
+					.addModifiers(PUBLIC)
+					.returns(String.class)
+					.addStatement("return $L + $S", toString.build(), "]")
+					.build()
+			)
+			.build();
+	}
+
+	private static String toConstantName(String simpleName) {
+		return simpleName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
 	}
 
 	private ForwardStrategy chooseSolutionFor(TypeElement classElement, ExecutableElement executableElement) {
@@ -285,39 +711,58 @@ public class AnnotationProcessor extends AbstractProcessor {
 		return FORWARD_AFTER_MARKING_FIELD_AS_ACCESSED;
 	}
 
-	public ForwardStrategy getValueOfForwardAnnotation(TypeMirror classElement, ExecutableElement targetMethod) {
-		if (classElement.getKind() == NONE) {
-			return null;
+	private ForwardStrategy getValueOfForwardAnnotation(TypeElement classElement, ExecutableElement overrider) {
+		final var utils = getElementUtils();
+		for (final var annotation : getForwardAnnotationsOf(classElement)) {
+			final var overridden = annotation.method();
+			if (overridden.equals(overrider) || utils.overrides(overrider, overridden, annotation.owner())) {
+				return annotation.strategy();
+			}
 		}
-		final var elementUtils = getElementUtils();
-		return getValueOfForwardAnnotation(elementUtils.getTypeElement(classElement.toString()), targetMethod);
+		return null;
 	}
 
-	public ForwardStrategy getValueOfForwardAnnotation(TypeElement classElement, ExecutableElement overrider) {
-		final var utils = getElementUtils();
-		for (final var element : classElement.getEnclosedElements()) {
-			if (element instanceof final ExecutableElement overridden) {
-				if (overridden.equals(overrider) || utils.overrides(overrider, overridden, classElement)) {
-					for (final var annotation : overridden.getAnnotationMirrors()) {
-						if (annotation.getAnnotationType().asElement().toString().equals(FORWARD_ANNOTATION)) {
-							for (final var annotationValue : annotation.getElementValues().values()) {
-								if (annotationValue.getValue()instanceof final VariableElement variableElement) {
-									final var simpleName = variableElement.getSimpleName().toString();
-									return valueOf(simpleName);
-								}
-							}
-						}
-					}
+	private List<ForwardAnnotation> getForwardAnnotationsOf(TypeMirror type) {
+		if (type.getKind() != DECLARED) {
+			return List.of();
+		}
+		return getForwardAnnotationsOf((TypeElement) ((DeclaredType) type).asElement());
+	}
+
+	private List<ForwardAnnotation> getForwardAnnotationsOf(TypeElement type) {
+		final var cachedAnnotations = forwardAnnotationsByType.get(type);
+		if (cachedAnnotations != null) {
+			return cachedAnnotations;
+		}
+		final var annotations = new LinkedHashSet<ForwardAnnotation>();
+		for (final var element : type.getEnclosedElements()) {
+			if (element instanceof final ExecutableElement method) {
+				final var strategy = getForwardStrategyOf(method);
+				if (strategy != null) {
+					annotations.add(new ForwardAnnotation(type, method, strategy));
 				}
 			}
 		}
-		for (final var interfaceMirror : classElement.getInterfaces()) {
-			final var overridden = getValueOfForwardAnnotation(interfaceMirror, overrider);
-			if (overridden != null) {
-				return overridden;
+		for (final var interfaceMirror : type.getInterfaces()) {
+			annotations.addAll(getForwardAnnotationsOf(interfaceMirror));
+		}
+		annotations.addAll(getForwardAnnotationsOf(type.getSuperclass()));
+		final var result = List.copyOf(annotations);
+		forwardAnnotationsByType.put(type, result);
+		return result;
+	}
+
+	private ForwardStrategy getForwardStrategyOf(ExecutableElement method) {
+		for (final var annotation : method.getAnnotationMirrors()) {
+			if (annotation.getAnnotationType().asElement().equals(forwardAnnotationType)) {
+				for (final var annotationValue : annotation.getElementValues().values()) {
+					if (annotationValue.getValue()instanceof final VariableElement variableElement) {
+						return valueOf(variableElement.getSimpleName().toString());
+					}
+				}
 			}
 		}
-		return getValueOfForwardAnnotation(classElement.getSuperclass(), overrider);
+		return null;
 	}
 
 	private Elements getElementUtils() {
@@ -333,17 +778,12 @@ public class AnnotationProcessor extends AbstractProcessor {
 		if (element == null) {
 			return null;
 		}
-		final var type = getGenerateSubstitutableForwarderAnnotationTypeElement();
 		for (final var annotation : element.getAnnotationMirrors()) {
-			if (annotation.getAnnotationType().asElement().equals(type)) {
+			if (annotation.getAnnotationType().asElement().equals(generateSubstitutableForwarderAnnotationType)) {
 				return annotation;
 			}
 		}
 		return null;
 	}
 
-	private TypeElement getGenerateSubstitutableForwarderAnnotationTypeElement() {
-		return getElementUtils().getTypeElement(GenerateSubstitutableForwarder.class.getName());
-	}
-
 }
\ No newline at end of file
@@ -1,24 +1,93 @@
 package com.leaprnd.observer4j;
 
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 import static com.leaprnd.observer4j.NullListener.NULL_LISTENER;
+import static java.util.concurrent.ConcurrentHashMap.newKeySet;
 
 public abstract class AbstractAsynchronousListener<T> extends AbstractRefreshable implements ForwardingListener<T> {
 
-	private volatile Listener<? super T> delegate = new RefreshingListener();
+	private final RefreshingListener refreshingListener = new RefreshingListener();
+	private volatile Listener<? super T> delegate = refreshingListener;
 
 	protected AbstractAsynchronousListener(Executor executor) {
 		super(executor);
 	}
 
+	/**
+	 * Records the listenables that each refresh listens to. The same listener is
+	 * kept across refreshes, so a dependency that is still read keeps its entry,
+	 * and only the dependencies that a refresh no longer reads are unlistened.
+	 * The first time a refresh reads a dependency that the previous one read, an
+	 * {@link AbstractListenable} swaps in a new forwarder, so that fields only
+	 * read by earlier refreshes no longer wake this listener.
+	 */
 	private class RefreshingListener implements WeakSynchronousListener<T> {
+
+		private volatile Set<Listenable<? extends T>> previousDependencies = Set.of();
+		private volatile Set<Listenable<? extends T>> dependencies = newKeySet();
+		private volatile boolean retired = false;
+
+		@Override
+		public <X extends T> X listenTo(Listenable<X> listenable) {
+			final X value;
+			if (
+				listenable instanceof AbstractListenable<X> abstractListenable &&
+				previousDependencies.contains(listenable) &&
+				!dependencies.contains(listenable)
+			) {
+				value = abstractListenable.relistenWithNewForwarder(this);
+			} else {
+				value = listenable.listenWith(this);
+			}
+			dependencies.add(listenable);
+			if (retired) {
+				listenable.unlistenWith(this);
+			}
+			return value;
+		}
+
 		@Override
 		public void onUpdate(T before, T after) {
-			if (delegate == this) {
+			if (!retired) {
 				requestAsynchronousRefresh();
 			}
 		}
+
+		/**
+		 * Starts recording the dependencies of a refresh, and returns those of the
+		 * previous one.
+		 */
+		private Set<Listenable<? extends T>> startRecording() {
+			final var oldDependencies = dependencies;
+			previousDependencies = oldDependencies;
+			dependencies = newKeySet();
+			return oldDependencies;
+		}
+
+		/**
+		 * Unlistens the dependencies of the previous refresh that the last one did not
+		 * read. This is only done after the refresh, so dependencies that are still
+		 * read never lose their listener in between.
+		 */
+		private void unlistenDependenciesNoLongerRead(Set<Listenable<? extends T>> oldDependencies) {
+			previousDependencies = Set.of();
+			final var newDependencies = dependencies;
+			for (final var dependency : oldDependencies) {
+				if (!newDependencies.contains(dependency)) {
+					dependency.unlistenWith(this);
+				}
+			}
+		}
+
+		private void retire() {
+			retired = true;
+			for (final var dependency : dependencies) {
+				dependency.unlistenWith(this);
+			}
+		}
+
 	}
 
 	@Override
@@ -28,8 +97,12 @@ public abstract class AbstractAsynchronousListener<T> extends AbstractRefreshabl
 
 	@Override
 	protected final void refresh(int numberOfRequests) {
-		delegate = new RefreshingListener();
-		onUpdate();
+		final var oldDependencies = refreshingListener.startRecording();
+		try {
+			onUpdate();
+		} finally {
+			refreshingListener.unlistenDependenciesNoLongerRead(oldDependencies);
+		}
 	}
 
 	protected abstract void onUpdate();
@@ -37,6 +110,7 @@ public abstract class AbstractAsynchronousListener<T> extends AbstractRefreshabl
 	@Override
 	protected void cleanup() {
 		delegate = NULL_LISTENER;
+		refreshingListener.retire();
 	}
 
 }
@@ -0,0 +1,185 @@
+package com.leaprnd.observer4j;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.UnaryOperator;
+
+import static com.leaprnd.observer4j.Exceptions.unchecked;
+import static com.leaprnd.observer4j.ReturnValue.RETURN_NEW_VALUE;
+import static java.lang.Thread.currentThread;
+import static java.lang.Thread.onSpinWait;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static java.util.concurrent.locks.LockSupport.unpark;
+
+/**
+ * An {@link AbstractListenable} that can combine concurrent updates. Writers
+ * that invoke {@link #combine} post their actions to a stack; whichever writer
+ * becomes the combiner applies every posted action in order and publishes the
+ * result with a single state transition. Listeners are notified once per
+ * combined batch rather than once per action.
+ */
+public abstract class AbstractCombiningListenable<T> extends AbstractListenable<T> {
+
+	private static final int MAXIMUM_NUMBER_OF_SPINS = 256;
+	private static final int MAXIMUM_NUMBER_OF_PASSES = 8;
+	private static final long PARK_NANOSECONDS = 50_000;
+
+	private static final VarHandle REQUESTS;
+
+	static {
+		try {
+			REQUESTS = MethodHandles.lookup().findVarHandle(AbstractCombiningListenable.class, "requests", Request.class);
+		} catch (ReflectiveOperationException exception) {
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<
+		AbstractCombiningListenable
+	> COMBINING = newUpdater(AbstractCombiningListenable.class, "combining");
+
+	private static final class Request<T> {
+
+		private final UnaryOperator<T> action;
+		private final ReturnValue returnValue;
+		private final Thread thread;
+		private Request<T> next;
+		private T result;
+		private Throwable exception;
+		private volatile boolean done;
+
+		private Request(UnaryOperator<T> action, ReturnValue returnValue, Thread thread) {
+			this.action = action;
+			this.returnValue = returnValue;
+			this.thread = thread;
+		}
+
+	}
+
+	private volatile Request<T> requests = null;
+	private volatile int combining = 0;
+
+	protected AbstractCombiningListenable() {}
+
+	protected AbstractCombiningListenable(Executor executor) {
+		super(executor);
+	}
+
+	protected AbstractCombiningListenable(T initialValue) {
+		super(initialValue);
+	}
+
+	protected AbstractCombiningListenable(Executor executor, T initialValue) {
+		super(executor, initialValue);
+	}
+
+	protected final T combine(UnaryOperator<T> action) {
+		return combine(action, RETURN_NEW_VALUE);
+	}
+
+	/**
+	 * Like {@link #update(UnaryOperator, ReturnValue)}, except that the action may
+	 * be applied by another thread, together with the actions of other writers.
+	 */
+	protected final T combine(UnaryOperator<T> action, ReturnValue returnValue) {
+		final var request = new Request<>(requireNonNull(action), requireNonNull(returnValue), currentThread());
+		push(request);
+		var spins = 0;
+		while (!request.done) {
+			if (COMBINING.compareAndSet(this, 0, 1)) {
+				try {
+					combineRequests();
+				} finally {
+					COMBINING.set(this, 0);
+				}
+				final var nextRequest = requests;
+				if (nextRequest != null) {
+					unpark(nextRequest.thread);
+				}
+			} else if (spins < MAXIMUM_NUMBER_OF_SPINS) {
+				spins ++;
+				onSpinWait();
+			} else {
+				parkNanos(this, PARK_NANOSECONDS);
+			}
+		}
+		if (request.exception != null) {
+			throw unchecked(request.exception);
+		}
+		return detach(request.result);
+	}
+
+	private void push(Request<T> request) {
+		while (true) {
+			final var head = requests;
+			request.next = head;
+			if (REQUESTS.weakCompareAndSet(this, head, request)) {
+				return;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void combineRequests() {
+		for (var pass = 0; pass < MAXIMUM_NUMBER_OF_PASSES; pass ++) {
+			var request = (Request<T>) REQUESTS.getAndSet(this, null);
+			if (request == null) {
+				return;
+			}
+			Request<T> first = null;
+			while (request != null) {
+				final var next = request.next;
+				request.next = first;
+				first = request;
+				request = next;
+			}
+			apply(first);
+		}
+	}
+
+	private void apply(Request<T> first) {
+		try {
+			updateWithoutDetaching(oldValue -> {
+				var value = oldValue;
+				for (var request = first; request != null; request = request.next) {
+					final T newValue;
+					try {
+						newValue = requireNonNull(request.action.apply(value));
+						request.exception = null;
+					} catch (Throwable throwable) {
+						request.exception = throwable;
+						continue;
+					}
+					request.result = switch (request.returnValue) {
+						case RETURN_OLD_VALUE -> value;
+						case RETURN_NEW_VALUE -> newValue;
+					};
+					if (!tryToSkipUpdate(value, newValue)) {
+						value = newValue;
+					}
+				}
+				return value;
+			});
+		} catch (Throwable throwable) {
+			for (var request = first; request != null; request = request.next) {
+				request.exception = throwable;
+			}
+		}
+		var request = first;
+		while (request != null) {
+			final var next = request.next;
+			final var thread = request.thread;
+			request.done = true;
+			if (thread != currentThread()) {
+				unpark(thread);
+			}
+			request = next;
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.leaprnd.observer4j;
+
+import java.util.concurrent.Executor;
+import java.util.function.DoubleUnaryOperator;
+
+import static com.leaprnd.observer4j.AbstractListenable.DIRECT_EXECUTOR;
+import static com.leaprnd.observer4j.ReferenceStrength.STRONG_REFERENCE;
+import static com.leaprnd.observer4j.ReferenceStrength.WEAK_REFERENCE;
+import static com.leaprnd.observer4j.ReturnValue.RETURN_NEW_VALUE;
+import static java.lang.Double.doubleToLongBits;
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.longBitsToDouble;
+
+/**
+ * A listenable of a primitive double, built on {@link AbstractPrimitiveListenable}.
+ * Updates and notifications of {@link DoubleSynchronousListener}s do not box. Every other
+ * kind of {@link Listener} is notified with boxed values. It is not an
+ * {@link AbstractListenable}, so it cannot be passed to
+ * {@link AbstractListenable#snapshotAll}, {@link UpdateJournal} or the bulk
+ * removal of {@link SubscriptionScope}.
+ */
+public abstract non-sealed class AbstractDoubleListenable extends AbstractPrimitiveListenable<Double>
+	implements DoubleListenable {
+
+	protected AbstractDoubleListenable() {
+		this(DIRECT_EXECUTOR);
+	}
+
+	protected AbstractDoubleListenable(Executor executor) {
+		super(executor);
+	}
+
+	protected AbstractDoubleListenable(double initialValue) {
+		this(DIRECT_EXECUTOR, initialValue);
+	}
+
+	protected AbstractDoubleListenable(Executor executor, double initialValue) {
+		super(executor, doubleToRawLongBits(initialValue));
+	}
+
+	public final void initialize(double initialValue) {
+		initializeWithBits(doubleToRawLongBits(initialValue));
+	}
+
+	protected void emitUpdateGlobally(double oldValue, double newValue) {}
+
+	@Override
+	final void emitUpdateOfBitsGlobally(long oldBits, long newBits) {
+		emitUpdateGlobally(longBitsToDouble(oldBits), longBitsToDouble(newBits));
+	}
+
+	@Override
+	final Double box(long bits) {
+		return longBitsToDouble(bits);
+	}
+
+	@Override
+	final boolean tryToNotifyWithoutBoxing(SynchronousListener<? super Double> listener, long oldBits, long newBits) {
+		if (listener instanceof DoubleSynchronousListener doubleListener) {
+			doubleListener.onUpdate(longBitsToDouble(oldBits), longBitsToDouble(newBits));
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public final double takeSnapshotAsDouble() {
+		return longBitsToDouble(takeSnapshotAsBits());
+	}
+
+	@Override
+	public final double listenWith(WeakDoubleSynchronousListener listener) {
+		return longBitsToDouble(listenWithoutBoxing(listener, WEAK_REFERENCE));
+	}
+
+	@Override
+	public final double listenWith(StrongDoubleSynchronousListener listener) {
+		return longBitsToDouble(listenWithoutBoxing(listener, STRONG_REFERENCE));
+	}
+
+	protected final double update(DoubleUnaryOperator action) {
+		return update(action, RETURN_NEW_VALUE);
+	}
+
+	protected final double update(DoubleUnaryOperator action, ReturnValue returnValue) {
+		return longBitsToDouble(
+			updateBits(oldBits -> doubleToRawLongBits(action.applyAsDouble(longBitsToDouble(oldBits))), returnValue)
+		);
+	}
+
+	protected final double update(double newValue) {
+		return update(newValue, RETURN_NEW_VALUE);
+	}
+
+	protected final double update(double newValue, ReturnValue returnValue) {
+		return longBitsToDouble(updateBits(doubleToRawLongBits(newValue), returnValue));
+	}
+
+	@Override
+	final boolean tryToSkipUpdateOfBits(long oldBits, long newBits) {
+		return tryToSkipUpdate(longBitsToDouble(oldBits), longBitsToDouble(newBits));
+	}
+
+	protected boolean tryToSkipUpdate(double oldValue, double newValue) {
+		return doubleToLongBits(newValue) == doubleToLongBits(oldValue);
+	}
+
+}
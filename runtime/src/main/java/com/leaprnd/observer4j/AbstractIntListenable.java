@@ -0,0 +1,103 @@
+package com.leaprnd.observer4j;
+
+import java.util.concurrent.Executor;
+import java.util.function.IntUnaryOperator;
+
+import static com.leaprnd.observer4j.AbstractListenable.DIRECT_EXECUTOR;
+import static com.leaprnd.observer4j.ReferenceStrength.STRONG_REFERENCE;
+import static com.leaprnd.observer4j.ReferenceStrength.WEAK_REFERENCE;
+import static com.leaprnd.observer4j.ReturnValue.RETURN_NEW_VALUE;
+
+/**
+ * A listenable of a primitive int, built on {@link AbstractPrimitiveListenable}.
+ * Updates and notifications of {@link IntSynchronousListener}s do not box. Every other
+ * kind of {@link Listener} is notified with boxed values. It is not an
+ * {@link AbstractListenable}, so it cannot be passed to
+ * {@link AbstractListenable#snapshotAll}, {@link UpdateJournal} or the bulk
+ * removal of {@link SubscriptionScope}.
+ */
+public abstract non-sealed class AbstractIntListenable extends AbstractPrimitiveListenable<Integer>
+	implements IntListenable {
+
+	protected AbstractIntListenable() {
+		this(DIRECT_EXECUTOR);
+	}
+
+	protected AbstractIntListenable(Executor executor) {
+		super(executor);
+	}
+
+	protected AbstractIntListenable(int initialValue) {
+		this(DIRECT_EXECUTOR, initialValue);
+	}
+
+	protected AbstractIntListenable(Executor executor, int initialValue) {
+		super(executor, initialValue);
+	}
+
+	public final void initialize(int initialValue) {
+		initializeWithBits(initialValue);
+	}
+
+	protected void emitUpdateGlobally(int oldValue, int newValue) {}
+
+	@Override
+	final void emitUpdateOfBitsGlobally(long oldBits, long newBits) {
+		emitUpdateGlobally((int) oldBits, (int) newBits);
+	}
+
+	@Override
+	final Integer box(long bits) {
+		return (int) bits;
+	}
+
+	@Override
+	final boolean tryToNotifyWithoutBoxing(SynchronousListener<? super Integer> listener, long oldBits, long newBits) {
+		if (listener instanceof IntSynchronousListener intListener) {
+			intListener.onUpdate((int) oldBits, (int) newBits);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public final int takeSnapshotAsInt() {
+		return (int) takeSnapshotAsBits();
+	}
+
+	@Override
+	public final int listenWith(WeakIntSynchronousListener listener) {
+		return (int) listenWithoutBoxing(listener, WEAK_REFERENCE);
+	}
+
+	@Override
+	public final int listenWith(StrongIntSynchronousListener listener) {
+		return (int) listenWithoutBoxing(listener, STRONG_REFERENCE);
+	}
+
+	protected final int update(IntUnaryOperator action) {
+		return update(action, RETURN_NEW_VALUE);
+	}
+
+	protected final int update(IntUnaryOperator action, ReturnValue returnValue) {
+		return (int) updateBits(oldBits -> action.applyAsInt((int) oldBits), returnValue);
+	}
+
+	protected final int update(int newValue) {
+		return update(newValue, RETURN_NEW_VALUE);
+	}
+
+	protected final int update(int newValue, ReturnValue returnValue) {
+		return (int) updateBits(newValue, returnValue);
+	}
+
+	@Override
+	final boolean tryToSkipUpdateOfBits(long oldBits, long newBits) {
+		return tryToSkipUpdate((int) oldBits, (int) newBits);
+	}
+
+	protected boolean tryToSkipUpdate(int oldValue, int newValue) {
+		return newValue == oldValue;
+	}
+
+}
@@ -6,13 +6,15 @@ import org.slf4j.Logger;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.UnaryOperator;
 
 import static com.leaprnd.observer4j.EmptyImmutableMap.emptyImmutableMap;
@@ -20,87 +22,140 @@ import static com.leaprnd.observer4j.Exceptions.unchecked;
 import static com.leaprnd.observer4j.ReferenceStrength.STRONG_REFERENCE;
 import static com.leaprnd.observer4j.ReferenceStrength.WEAK_REFERENCE;
 import static com.leaprnd.observer4j.ReturnValue.RETURN_NEW_VALUE;
+import static java.lang.Math.min;
+import static java.lang.Thread.currentThread;
+import static java.lang.Thread.onSpinWait;
 import static java.lang.ref.Cleaner.create;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.ofNullable;
 import static java.util.concurrent.ConcurrentHashMap.newKeySet;
-import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+import static java.util.concurrent.atomic.AtomicReferenceFieldUpdater.newUpdater;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 
 	private static final VarHandle STATE_UPDATER;
+	private static final VarHandle DETACHED_VALUE;
 
 	static {
 		try {
-			STATE_UPDATER = MethodHandles.lookup().findVarHandle(AbstractListenable.class, "state", State.class);
+			final var lookup = MethodHandles.lookup();
+			STATE_UPDATER = lookup.findVarHandle(AbstractListenable.class, "state", Object.class);
+			DETACHED_VALUE = lookup.findVarHandle(ValueState.class, "detachedValue", Object.class);
 		} catch (ReflectiveOperationException exception) {
 			throw new ExceptionInInitializerError(exception);
 		}
 	}
 
-	private static sealed abstract class Emission {
+	private static final int MAXIMUM_NUMBER_OF_SHARED_FORWARDERS = 16;
 
-		private final Emission previous;
-		private Emission next;
+	/**
+	 * The notifications caused by one update: at most one global emission and one
+	 * notification for each listener whose forwarder could not be redelegated.
+	 */
+	private static final class Emission<T> {
 
-		private Emission(Emission previous) {
+		private final Emission<T> previous;
+		private final int depth;
+		private final AbstractListenable<T> listenable;
+		private final T oldValue;
+		private final T newValue;
+		private ImmutableMapEntry<T>[] entries;
+		private Object[] forwarders;
+		private int size;
+		private int[] masksOfSharedForwarders;
+		private Object[] sharedForwarders;
+		private int numberOfSharedForwarders;
+
+		private Emission(Emission<T> previous, AbstractListenable<T> listenable, T oldValue, T newValue) {
 			this.previous = previous;
+			this.depth = previous == null ? 1 : previous.depth + 1;
+			this.listenable = listenable;
+			this.oldValue = oldValue;
+			this.newValue = newValue;
 		}
 
-		public Emission getPrevious() {
-			return previous;
-		}
-
-		public Emission getNext() {
-			return next;
+		@SuppressWarnings("unchecked")
+		private void add(ImmutableMapEntry<T> entry, T forwarder, int capacity) {
+			if (entries == null) {
+				entries = new ImmutableMapEntry[capacity];
+				forwarders = new Object[capacity];
+			}
+			entries[size] = entry;
+			forwarders[size] = forwarder;
+			size ++;
 		}
 
-		public void setNext(Emission next) {
-			this.next = next;
+		private boolean isEmpty() {
+			return oldValue == null && size == 0;
 		}
 
-		public abstract void emit();
-
-	}
-
-	private final class EmitUpdateGlobally extends Emission {
-
-		private final T oldValue;
-		private final T newValue;
-
-		public EmitUpdateGlobally(Emission previous, T oldValue, T newValue) {
-			super(previous);
-			this.oldValue = detach(oldValue);
-			this.newValue = detach(newValue);
+		@SuppressWarnings("unchecked")
+		private T getSharedForwarder(int mask) {
+			for (var index = 0; index < numberOfSharedForwarders; index ++) {
+				if (masksOfSharedForwarders[index] == mask) {
+					return (T) sharedForwarders[index];
+				}
+			}
+			return null;
 		}
 
-		@Override
-		public void emit() {
-			emitUpdateGlobally(oldValue, newValue);
+		private void share(int mask, T forwarder, int capacity) {
+			if (sharedForwarders == null) {
+				final var length = min(capacity, MAXIMUM_NUMBER_OF_SHARED_FORWARDERS);
+				masksOfSharedForwarders = new int[length];
+				sharedForwarders = new Object[length];
+			}
+			if (numberOfSharedForwarders < sharedForwarders.length) {
+				masksOfSharedForwarders[numberOfSharedForwarders] = mask;
+				sharedForwarders[numberOfSharedForwarders] = forwarder;
+				numberOfSharedForwarders ++;
+			}
 		}
 
-	}
-
-	private static final class EmitUpdateToListener<T> extends Emission {
-
-		private final ImmutableMapEntry<T> entry;
-		private final T newValue;
-
-		public EmitUpdateToListener(Emission previous, ImmutableMapEntry<T> entry, T newValue) {
-			super(previous);
-			this.entry = entry;
-			this.newValue = newValue;
+		@SuppressWarnings("rawtypes")
+		private void emitWithPreviousEmissions() {
+			if (previous == null) {
+				emit();
+				return;
+			}
+			final var emissions = new Emission[depth];
+			var emission = this;
+			for (var index = depth - 1; index >= 0; index --) {
+				emissions[index] = emission;
+				emission = emission.previous;
+			}
+			for (final var each : emissions) {
+				each.emit();
+			}
 		}
 
-		@Override
-		public void emit() {
-			final var listener = entry.listener();
-			if (listener == null) {
-				return;
+		@SuppressWarnings("unchecked")
+		private void emit() {
+			if (oldValue != null) {
+				final var history = listenable.getHistory();
+				if (history != null) {
+					history.append(oldValue, newValue);
+				}
+				try {
+					listenable.emitUpdateGlobally(oldValue, newValue);
+				} catch (Throwable throwable) {
+					LOGGER.error("Could emit update of {}!", listenable, throwable);
+				}
+			}
+			for (var index = 0; index < size; index ++) {
+				final var entry = entries[index];
+				final var listener = entry.listener();
+				if (listener == null) {
+					continue;
+				}
+				try {
+					listener.onUpdate(entry.value(), (T) forwarders[index]);
+				} catch (Throwable throwable) {
+					LOGGER.error("Could emit update of {}!", listenable, throwable);
+				}
 			}
-			final var oldValue = entry.value();
-			listener.onUpdate(oldValue, newValue);
 		}
 
 	}
@@ -113,14 +168,14 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 	private abstract sealed class UninitializedState implements State<T> {
 		@Override
 		public boolean complete(InitializedState<T> initializedState) {
-			return compareAndSetState(this, initializedState);
+			return compareAndSetState(this, compact(initializedState));
 		}
 	}
 
 	private final class InitialState extends UninitializedState {
 		@Override
 		public ValueState<T> waitUntilInitialized() {
-			return compareAndExchangeState(this, new InitializingState()).waitUntilInitialized();
+			return AbstractListenable.this.waitUntilInitialized(compareAndExchangeState(this, new InitializingState()));
 		}
 	}
 
@@ -164,15 +219,31 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 
 	}
 
-	private record ValueState<T> (T value, ImmutableMap<T> forwarders, Emission emission) implements InitializedState<T> {
+	/**
+	 * The detached value is only memoized for listenables that opt in with
+	 * {@link #memoizesDetachedValues()}, and is carried over to the states that
+	 * keep the same value.
+	 */
+	private static final class ValueState<T> implements InitializedState<T> {
+
+		private final T value;
+		private final ImmutableMap<T> forwarders;
+		private final Emission<T> emission;
+		private Object detachedValue;
 
 		public ValueState(T value) {
-			this(value, emptyImmutableMap(), null);
+			this(value, emptyImmutableMap(), null, null);
+		}
+
+		public ValueState(T value, ImmutableMap<T> forwarders, Emission<T> emission) {
+			this(value, forwarders, emission, null);
 		}
 
-		public ValueState {
-			requireNonNull(value);
-			requireNonNull(forwarders);
+		public ValueState(T value, ImmutableMap<T> forwarders, Emission<T> emission, Object detachedValue) {
+			this.value = requireNonNull(value);
+			this.forwarders = requireNonNull(forwarders);
+			this.emission = emission;
+			this.detachedValue = detachedValue;
 		}
 
 		@Override
@@ -184,7 +255,15 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 			if (newForwarders == forwarders) {
 				return this;
 			}
-			return new ValueState<>(value, newForwarders.clean(), emission);
+			return new ValueState<>(value, newForwarders.clean(), emission, getDetachedValue());
+		}
+
+		public ValueState<T> withoutEmission(ImmutableMap<T> newForwarders) {
+			return new ValueState<>(value, newForwarders, null, getDetachedValue());
+		}
+
+		private Object getDetachedValue() {
+			return DETACHED_VALUE.getAcquire(this);
 		}
 
 	}
@@ -193,8 +272,12 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 
 	protected final Executor executor;
 
+	/**
+	 * Either a {@link State} or, while there are no listeners and no pending
+	 * emissions, the current value itself.
+	 */
 	@NotNull
-	private volatile State<T> state;
+	private volatile Object state;
 
 	protected AbstractListenable() {
 		this(DIRECT_EXECUTOR);
@@ -203,6 +286,7 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 	protected AbstractListenable(Executor executor) {
 		this.executor = executor;
 		this.state = new InitialState();
+		ObserverRegistry.register(this);
 	}
 
 	protected AbstractListenable(T initialValue) {
@@ -211,7 +295,8 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 
 	protected AbstractListenable(Executor executor, T initialValue) {
 		this.executor = executor;
-		this.state = new ValueState<>(initialValue);
+		this.state = requireNonNull(initialValue);
+		ObserverRegistry.register(this);
 	}
 
 	public final void initialize(T initialValue) {
@@ -222,9 +307,13 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 		initialize(new ExceptionState<>(exception));
 	}
 
+	@SuppressWarnings("unchecked")
 	private void initialize(InitializedState<T> initializedState) {
 		while (true) {
-			if (state.complete(initializedState)) {
+			if (!(state instanceof State<?> currentState)) {
+				throw new IllegalStateException("Already initialized!");
+			}
+			if (((State<T>) currentState).complete(initializedState)) {
 				return;
 			}
 		}
@@ -232,16 +321,166 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 
 	protected void emitUpdateGlobally(T oldValue, T newValue) {}
 
+	private static final ClassValue<Boolean> EMITS_UPDATES_GLOBALLY = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			for (var current = type; current != AbstractListenable.class; current = current.getSuperclass()) {
+				for (final var method : current.getDeclaredMethods()) {
+					if (method.getName().equals("emitUpdateGlobally") && method.getParameterCount() == 2) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	};
+
 	@Override
 	public final T takeSnapshot() {
-		return detach(state.waitUntilInitialized().value);
+		if (memoizesDetachedValues()) {
+			return detachValueOf(pinState());
+		}
+		return detach(getValueOf(state));
+	}
+
+	private static final int NUMBER_OF_SNAPSHOT_PASSES_BEFORE_BACKING_OFF = 64;
+	private static final int MAXIMUM_NUMBER_OF_SNAPSHOT_PASSES = 4096;
+	private static final long MAXIMUM_SNAPSHOT_BACK_OFF_NANOSECONDS = 100_000;
+
+	/**
+	 * Takes a snapshot of every provided listenable as they all were at a single
+	 * point in time, without blocking writers. The states are read, then read again
+	 * and any that changed are read anew until a pass finds no changes; values are
+	 * only detached once the cut is consistent. Only states that hold a bare value
+	 * are written to, once per change, to pin them. After a few passes that found
+	 * changes, each pass waits longer before reading again, so that writers can
+	 * finish their bursts.
+	 *
+	 * @throws IllegalStateException if the listenables kept changing for too many
+	 *                               passes.
+	 */
+	public static <T> List<T> snapshotAll(List<? extends AbstractListenable<? extends T>> listenables) {
+		final var size = listenables.size();
+		final var states = new Object[size];
+		for (var index = 0; index < size; index ++) {
+			final AbstractListenable<? extends T> listenable = listenables.get(index);
+			states[index] = listenable.pinState();
+		}
+		var numberOfPasses = 0;
+		var changed = true;
+		while (changed) {
+			if (++ numberOfPasses > MAXIMUM_NUMBER_OF_SNAPSHOT_PASSES) {
+				throw new IllegalStateException("The listenables kept changing while they were snapshotted!");
+			}
+			if (numberOfPasses > NUMBER_OF_SNAPSHOT_PASSES_BEFORE_BACKING_OFF) {
+				final var backOff = (long) (numberOfPasses - NUMBER_OF_SNAPSHOT_PASSES_BEFORE_BACKING_OFF) * 100;
+				parkNanos(min(backOff, MAXIMUM_SNAPSHOT_BACK_OFF_NANOSECONDS));
+			}
+			changed = false;
+			for (var index = 0; index < size; index ++) {
+				final AbstractListenable<? extends T> listenable = listenables.get(index);
+				final var currentState = listenable.state;
+				if (currentState == states[index]) {
+					continue;
+				}
+				states[index] = currentState instanceof ValueState<?> ? currentState : listenable.pinState();
+				changed = true;
+			}
+		}
+		final var snapshots = new ArrayList<T>(size);
+		for (var index = 0; index < size; index ++) {
+			final AbstractListenable<? extends T> listenable = listenables.get(index);
+			snapshots.add(listenable.detachValueOf(states[index]));
+		}
+		return snapshots;
+	}
+
+	/**
+	 * Returns the current state, after replacing a bare value with an equivalent
+	 * {@link ValueState}. Every commit installs a new state object, so unlike a bare
+	 * value, which may be set again later, a pinned state can only be current
+	 * again if it never stopped being current.
+	 */
+	@SuppressWarnings("unchecked")
+	private Object pinState() {
+		while (true) {
+			final var currentState = state;
+			if (currentState instanceof ValueState<?>) {
+				return currentState;
+			}
+			if (currentState instanceof State<?> nonCompactState) {
+				nonCompactState.waitUntilInitialized();
+				continue;
+			}
+			final var pinnedState = new ValueState<>((T) currentState);
+			if (STATE_UPDATER.compareAndSet(this, currentState, pinnedState)) {
+				return pinnedState;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private T detachValueOf(Object pinnedState) {
+		final var valueState = (ValueState<T>) pinnedState;
+		if (!memoizesDetachedValues()) {
+			return detach(valueState.value);
+		}
+		final var memoizedValue = valueState.getDetachedValue();
+		if (memoizedValue != null) {
+			return (T) memoizedValue;
+		}
+		final var detachedValue = detach(valueState.value);
+		final var witness = DETACHED_VALUE.compareAndExchangeRelease(valueState, null, detachedValue);
+		return witness == null ? detachedValue : (T) witness;
+	}
+
+	private T detachValueOf(Object state, T value) {
+		if (state instanceof ValueState<?> valueState && valueState.value == value) {
+			return detachValueOf(valueState);
+		}
+		return detach(value);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T getValueOf(Object state) {
+		if (state instanceof State<?> nonCompactState) {
+			return ((State<T>) nonCompactState).waitUntilInitialized().value;
+		}
+		return (T) state;
+	}
+
+	@SuppressWarnings("unchecked")
+	private ValueState<T> waitUntilInitialized(Object state) {
+		if (state instanceof State<?> nonCompactState) {
+			return ((State<T>) nonCompactState).waitUntilInitialized();
+		}
+		return new ValueState<>((T) state);
+	}
+
+	private static Object compact(State<?> state) {
+		if (state instanceof ValueState<?> valueState) {
+			if (valueState.emission == null && valueState.forwarders.isEmpty()) {
+				return valueState.value;
+			}
+		}
+		return state;
 	}
 
 	protected T detach(T value) {
 		return value;
 	}
 
-	private static final Cleaner CLEANER = create(runnable -> {
+	/**
+	 * Return true to share one detached value between every read of the same
+	 * state: {@link #takeSnapshot()}, the values returned by updates and the values
+	 * passed to {@link #emitUpdateGlobally}. Only opt in if detached values are
+	 * immutable.
+	 */
+	protected boolean memoizesDetachedValues() {
+		return false;
+	}
+
+	static final Cleaner CLEANER = create(runnable -> {
 		final var thread = new Thread(runnable);
 		thread.setDaemon(true);
 		thread.setName("Listenable Cleaner");
@@ -255,36 +494,203 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 
 	@Override
 	public final T listenWith(WeakSynchronousListener<? super T> listener) {
-		return listenWith(listener, WEAK_REFERENCE);
+		return listenWith(listener, WEAK_REFERENCE, null);
 	}
 
 	@Override
 	public final T listenWith(StrongSynchronousListener<? super T> listener) {
-		return listenWith(listener, STRONG_REFERENCE);
+		return listenWith(listener, STRONG_REFERENCE, null);
 	}
 
-	private T listenWith(SynchronousListener<? super T> listener, ReferenceStrength strategy) {
+	/**
+	 * Like {@link #listenWith(WeakSynchronousListener)}, except that the listener
+	 * is only notified of the updates that pass the provided filter. If the
+	 * listener is already listening, its filter is left unchanged.
+	 */
+	public final T listenWith(WeakSynchronousListener<? super T> listener, UpdateFilter<? super T> filter) {
+		return listenWith(listener, WEAK_REFERENCE, requireNonNull(filter));
+	}
+
+	/**
+	 * Like {@link #listenWith(StrongSynchronousListener)}, except that the listener
+	 * is only notified of the updates that pass the provided filter. If the
+	 * listener is already listening, its filter is left unchanged.
+	 */
+	public final T listenWith(StrongSynchronousListener<? super T> listener, UpdateFilter<? super T> filter) {
+		return listenWith(listener, STRONG_REFERENCE, requireNonNull(filter));
+	}
+
+	private T listenWith(
+		SynchronousListener<? super T> listener,
+		ReferenceStrength strategy,
+		UpdateFilter<? super T> filter
+	) {
 		while (true) {
-			final var oldState = state.waitUntilInitialized();
+			final var currentState = state;
+			final var oldState = waitUntilInitialized(currentState);
 			final var oldForwarders = oldState.forwarders;
 			final var oldValue = oldState.value;
 			final var newForwarder = forward(oldValue);
-			final var newForwarders = oldForwarders.with(listener, strategy, newForwarder);
+			final var newForwarders = oldForwarders.with(listener, strategy, filter, newForwarder);
 			if (newForwarders == oldForwarders) {
 				return oldForwarders.get(listener);
 			}
 			final var newState = oldState.with(newForwarders);
-			if (compareAndSetState(oldState, newState)) {
+			if (compareAndSetState(currentState, newState)) {
 				CLEANER.register(listener, this);
 				return newForwarder;
 			}
 		}
 	}
 
+	/**
+	 * Like {@link #listenWith(WeakSynchronousListener)}, except that if the
+	 * listener is already listening to a forwarder that may have recorded
+	 * accesses, it is given a new forwarder of the current value instead, so that
+	 * only the fields read from now on can wake it.
+	 */
+	final T relistenWithNewForwarder(WeakSynchronousListener<? super T> listener) {
+		while (true) {
+			final var currentState = state;
+			final var oldState = waitUntilInitialized(currentState);
+			final var oldForwarders = oldState.forwarders;
+			final var oldForwarder = oldForwarders.get(listener);
+			if (oldForwarder == null) {
+				return listenWith(listener);
+			}
+			if (getAccessMaskOf(oldForwarder) == 0) {
+				return oldForwarder;
+			}
+			final var newForwarder = forward(oldState.value);
+			final var newForwarders = oldForwarders.map(
+				entry -> entry.listener() == listener ? newForwarder : entry.value()
+			);
+			if (newForwarders == oldForwarders) {
+				return oldForwarder;
+			}
+			if (compareAndSetState(currentState, oldState.with(newForwarders))) {
+				return newForwarder;
+			}
+		}
+	}
+
 	protected T forward(T value) {
 		return value;
 	}
 
+	/**
+	 * Return an {@link UpdateHistory} of its own to retain the last updates of
+	 * this listenable, so that listeners can catch up on the updates they missed
+	 * with {@link #listenWith(StrongSynchronousListener, long)}. The updates are
+	 * retained as detached values.
+	 */
+	protected UpdateHistory<T> getHistory() {
+		return null;
+	}
+
+	/**
+	 * Like {@link #listenWith(WeakSynchronousListener)}, except that the listener
+	 * is first notified of every update after the given version of the
+	 * {@link #getHistory() history}. Those updates are replayed on the calling
+	 * thread before any update made since is emitted, once the thread that is
+	 * emitting the updates of this listenable, if any, has finished.
+	 *
+	 * @throws IllegalArgumentException if the history no longer retains every
+	 *                                  update after the given version, or if the
+	 *                                  listener is already listening.
+	 * @throws IllegalStateException    if called while emitting the updates of this
+	 *                                  listenable, such as from one of its
+	 *                                  listeners.
+	 */
+	public final T listenWith(WeakSynchronousListener<? super T> listener, long fromVersion) {
+		return listenWith(listener, WEAK_REFERENCE, fromVersion);
+	}
+
+	/**
+	 * Like {@link #listenWith(StrongSynchronousListener)}, except that the
+	 * listener is first notified of every update after the given version of the
+	 * {@link #getHistory() history}. Those updates are replayed on the calling
+	 * thread before any update made since is emitted, once the thread that is
+	 * emitting the updates of this listenable, if any, has finished.
+	 *
+	 * @throws IllegalArgumentException if the history no longer retains every
+	 *                                  update after the given version, or if the
+	 *                                  listener is already listening.
+	 * @throws IllegalStateException    if called while emitting the updates of this
+	 *                                  listenable, such as from one of its
+	 *                                  listeners.
+	 */
+	public final T listenWith(StrongSynchronousListener<? super T> listener, long fromVersion) {
+		return listenWith(listener, STRONG_REFERENCE, fromVersion);
+	}
+
+	/**
+	 * Waits for the current emitter to finish, spinning briefly and then parking,
+	 * and becomes the emitter in its place.
+	 *
+	 * @throws IllegalStateException if the calling thread is already emitting the
+	 *                               updates of this listenable.
+	 */
+	private void becomeEmitterToReplay() {
+		final var thread = currentThread();
+		var spins = 0;
+		while (!EMITTER.compareAndSet(this, null, thread)) {
+			if (emitter == thread) {
+				throw new IllegalStateException("Cannot replay the history while emitting the updates of this listenable!");
+			}
+			if (spins < MAXIMUM_NUMBER_OF_SPINS_TO_REPLAY) {
+				spins ++;
+				onSpinWait();
+			} else {
+				parkNanos(this, WAIT_FOR_EMITTER_NANOSECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Becomes the emitter of this listenable, so that the pending updates can be
+	 * emitted, the listener added and the history replayed without any update
+	 * being emitted in between.
+	 */
+	private T listenWith(SynchronousListener<? super T> listener, ReferenceStrength strategy, long fromVersion) {
+		final var history = getHistory();
+		if (history == null) {
+			throw new IllegalStateException("This listenable does not retain its history!");
+		}
+		becomeEmitterToReplay();
+		try {
+			while (true) {
+				final var currentState = state;
+				final var oldState = waitUntilInitialized(currentState);
+				final var oldForwarders = oldState.forwarders;
+				final var newForwarder = forward(oldState.value);
+				final var newForwarders = oldForwarders.with(listener, strategy, null, newForwarder);
+				if (newForwarders == oldForwarders) {
+					throw new IllegalArgumentException("The listener is already listening!");
+				}
+				if (STATE_UPDATER.compareAndSet(this, currentState, oldState.withoutEmission(newForwarders))) {
+					CLEANER.register(listener, this);
+					final var emission = oldState.emission;
+					if (emission != null) {
+						emission.emitWithPreviousEmissions();
+					}
+					try {
+						history.replay(listener, fromVersion);
+					} catch (IllegalArgumentException exception) {
+						unlistenWith(listener);
+						throw exception;
+					}
+					return newForwarder;
+				}
+			}
+		} finally {
+			EMITTER.set(this, null);
+			if (hasPendingWork()) {
+				executor.execute(this);
+			}
+		}
+	}
+
 	@Override
 	public final Optional<? extends T> relistenWith(Listener<? super T> listener) {
 		return listener.relistenTo(this);
@@ -292,7 +698,7 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 
 	@Override
 	public final Optional<T> relistenWith(SynchronousListener<? super T> listener) {
-		final var forwarder = state.waitUntilInitialized().forwarders.get(listener);
+		final var forwarder = waitUntilInitialized(state).forwarders.get(listener);
 		return ofNullable(forwarder);
 	}
 
@@ -304,34 +710,67 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 	@Override
 	public final boolean unlistenWith(SynchronousListener<? super T> listener) {
 		while (true) {
-			final var oldState = state.waitUntilInitialized();
+			final var currentState = state;
+			final var oldState = waitUntilInitialized(currentState);
 			final var oldForwarders = oldState.forwarders;
 			final var newForwarders = oldForwarders.without(listener);
 			if (oldForwarders == newForwarders) {
 				return false;
 			}
 			final var newState = oldState.with(newForwarders);
-			if (compareAndSetState(oldState, newState)) {
+			if (compareAndSetState(currentState, compact(newState))) {
 				return true;
 			}
 		}
 	}
 
+	/**
+	 * Removes every given listener in one state transition. Returns the number of
+	 * listeners that were removed.
+	 */
+	public final int unlistenWithAll(Collection<? extends SynchronousListener<? super T>> listeners) {
+		while (true) {
+			final var currentState = state;
+			final var oldState = waitUntilInitialized(currentState);
+			final var oldForwarders = oldState.forwarders;
+			final var newForwarders = oldForwarders.withoutAll(listeners);
+			if (oldForwarders == newForwarders) {
+				return 0;
+			}
+			final var newState = oldState.with(newForwarders);
+			if (compareAndSetState(currentState, compact(newState))) {
+				return oldForwarders.size() - newForwarders.size();
+			}
+		}
+	}
+
 	protected final T update(UnaryOperator<T> action) {
 		return update(action, RETURN_NEW_VALUE);
 	}
 
 	protected final T update(UnaryOperator<T> action, ReturnValue returnValue) {
 		while (true) {
-			final var oldState = state.waitUntilInitialized();
+			final var currentState = state;
+			final var oldState = waitUntilInitialized(currentState);
 			final var oldValue = oldState.value;
 			final var newValue = action.apply(oldValue);
 			final var newState = update(oldState, newValue);
-			if (compareAndSetState(oldState, newState)) {
-				return detach(switch (returnValue) {
-					case RETURN_OLD_VALUE -> oldValue;
-					case RETURN_NEW_VALUE -> newValue;
-				});
+			if (compareAndSetState(currentState, newState)) {
+				return switch (returnValue) {
+					case RETURN_OLD_VALUE -> detachValueOf(currentState, oldValue);
+					case RETURN_NEW_VALUE -> detachValueOf(newState, newValue);
+				};
+			}
+		}
+	}
+
+	final void updateWithoutDetaching(UnaryOperator<T> action) {
+		while (true) {
+			final var currentState = state;
+			final var oldState = waitUntilInitialized(currentState);
+			final var newState = update(oldState, action.apply(oldState.value));
+			if (compareAndSetState(currentState, newState)) {
+				return;
 			}
 		}
 	}
@@ -342,40 +781,85 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 
 	protected final T update(T newValue, ReturnValue returnValue) {
 		while (true) {
-			final var oldState = state.waitUntilInitialized();
+			final var currentState = state;
+			final var oldState = waitUntilInitialized(currentState);
 			final var oldValue = oldState.value;
 			final var newState = update(oldState, newValue);
-			if (compareAndSetState(oldState, newState)) {
-				return detach(switch (returnValue) {
-					case RETURN_OLD_VALUE -> oldValue;
-					case RETURN_NEW_VALUE -> newValue;
-				});
+			if (compareAndSetState(currentState, newState)) {
+				return switch (returnValue) {
+					case RETURN_OLD_VALUE -> detachValueOf(currentState, oldValue);
+					case RETURN_NEW_VALUE -> detachValueOf(newState, newValue);
+				};
 			}
 		}
 	}
 
-	private State<T> update(ValueState<T> oldState, T newValue) {
+	private Object update(ValueState<T> oldState, T newValue) {
 		final var oldValue = oldState.value;
 		if (tryToSkipUpdate(oldValue, newValue)) {
-			return oldState;
+			return compact(oldState);
 		}
 		final var oldForwarders = oldState.forwarders;
-		final var emitUpdateGlobally = new EmitUpdateGlobally(oldState.emission, oldValue, newValue);
+		final var oldEmission = oldState.emission;
+		final Emission<T> newEmission;
+		if (EMITS_UPDATES_GLOBALLY.get(getClass()) || getHistory() != null) {
+			newEmission = new Emission<>(oldEmission, this, detachValueOf(oldState), detach(newValue));
+		} else if (oldForwarders.isEmpty() && oldEmission == null) {
+			return requireNonNull(newValue);
+		} else {
+			newEmission = new Emission<>(oldEmission, this, null, null);
+		}
+		final var detachedNewValue = memoizesDetachedValues() ? newEmission.newValue : null;
 		if (tryToReplace(oldValue, newValue)) {
-			return new ValueState<>(newValue, oldForwarders, emitUpdateGlobally);
+			return new ValueState<>(
+				newValue,
+				oldForwarders,
+				newEmission.isEmpty() ? oldEmission : newEmission,
+				detachedNewValue
+			);
 		}
-		final var newEmissions = new AtomicReference<Emission>(emitUpdateGlobally);
+		final var numberOfForwarders = oldForwarders.size();
 		final var newForwarders = oldForwarders.map(entry -> {
 			final var oldForwarder = entry.value();
-			if (tryToRedelegate(oldForwarder, newValue)) {
+			if (!entry.isInterestedIn(oldValue, newValue) || tryToRedelegate(oldForwarder, newValue)) {
 				return oldForwarder;
-			} else {
+			}
+			final var mask = getAccessMaskOf(oldForwarder);
+			if (mask < 0) {
 				final var newForwarder = forward(newValue);
-				newEmissions.updateAndGet(emission -> new EmitUpdateToListener<>(emission, entry, newForwarder));
+				newEmission.add(entry, newForwarder, numberOfForwarders);
 				return newForwarder;
 			}
+			var newForwarder = newEmission.getSharedForwarder(mask);
+			if (newForwarder == null) {
+				newForwarder = forward(newValue);
+				newEmission.share(mask, newForwarder, numberOfForwarders);
+			}
+			newEmission.add(entry, newForwarder, numberOfForwarders);
+			return newForwarder;
 		});
-		return new ValueState<>(newValue, newForwarders, newEmissions.get());
+		return new ValueState<>(
+			newValue,
+			newForwarders,
+			newEmission.isEmpty() ? oldEmission : newEmission,
+			detachedNewValue
+		);
+	}
+
+	/**
+	 * Enables listeners to share forwarders. When the forwarders of several
+	 * listeners cannot be redelegated during the same update, every listener whose
+	 * old forwarder has the same non-negative mask receives the same new
+	 * forwarder, so the number of forwarders created grows with the number of
+	 * distinct access patterns rather than the number of listeners. A negative
+	 * mask, the default, gives the listener a forwarder of its own.
+	 *
+	 * Accesses made through a shared forwarder are seen by all the listeners
+	 * that share it, so they may be notified of more updates than they would be
+	 * otherwise, but never fewer.
+	 */
+	protected int getAccessMaskOf(T forwarder) {
+		return -1;
 	}
 
 	protected boolean tryToReplace(T oldValue, T newValue) {
@@ -390,13 +874,12 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 		return newValue.equals(oldValue);
 	}
 
-	private boolean compareAndSetState(State<T> expectedState, State<T> newState) {
+	private boolean compareAndSetState(Object expectedState, Object newState) {
 		return compareAndExchangeState(expectedState, newState) == expectedState;
 	}
 
-	@SuppressWarnings("unchecked")
-	private State<T> compareAndExchangeState(State<T> expectedState, State<T> newState) {
-		final var oldState = (State<T>) STATE_UPDATER.compareAndExchange(this, expectedState, newState);
+	private Object compareAndExchangeState(Object expectedState, Object newState) {
+		final var oldState = STATE_UPDATER.compareAndExchange(this, expectedState, newState);
 		if (oldState == expectedState) {
 			executor.execute(this);
 		}
@@ -404,59 +887,118 @@ public abstract class AbstractListenable<T> implements Listenable<T>, Runnable {
 	}
 
 	@SuppressWarnings("rawtypes")
-	private static final AtomicIntegerFieldUpdater<
-		AbstractListenable
-	> EMITTING = newUpdater(AbstractListenable.class, "emitting");
+	private static final AtomicReferenceFieldUpdater<
+		AbstractListenable,
+		Thread
+	> EMITTER = newUpdater(AbstractListenable.class, Thread.class, "emitter");
+
+	private static final int MAXIMUM_NUMBER_OF_SPINS_TO_REPLAY = 128;
+	private static final long WAIT_FOR_EMITTER_NANOSECONDS = 10_000;
 
-	private volatile int emitting = 0;
+	/**
+	 * The thread that is emitting the pending updates of this listenable, if any.
+	 */
+	private volatile Thread emitter = null;
 
-	private static final Set<AbstractListenable<?>> STRONG_REFERENCES_TO_OBSERVED = newKeySet();
+	static final Set<Runnable> STRONG_REFERENCES_TO_OBSERVED = newKeySet();
 	private static final Logger LOGGER = getLogger(AbstractListenable.class);
 
 	@Override
 	public final void run() {
-		if (EMITTING.compareAndSet(this, 0, 1)) {
+		final var thread = currentThread();
+		while (EMITTER.compareAndSet(this, null, thread)) {
 			try {
-				while (true) {
-					final var oldState = state.waitUntilInitialized();
-					final var oldForwarders = oldState.forwarders;
-					final var newForwarders = oldForwarders.clean();
-					if (newForwarders == oldForwarders && oldState.emission == null) {
-						if (oldForwarders.isEmpty()) {
-							STRONG_REFERENCES_TO_OBSERVED.remove(this);
-						} else {
-							STRONG_REFERENCES_TO_OBSERVED.add(this);
-						}
-						return;
-					}
-					final var newState = new ValueState<>(oldState.value, newForwarders, null);
-					if (STATE_UPDATER.compareAndSet(this, oldState, newState)) {
-						var emission = oldState.emission;
-						if (emission == null) {
-							continue;
-						}
-						while (true) {
-							var previousEmission = emission.getPrevious();
-							if (previousEmission == null) {
-								break;
-							}
-							previousEmission.setNext(emission);
-							emission = previousEmission;
-						}
-						while (emission != null) {
-							try {
-								emission.emit();
-							} catch (Throwable throwable) {
-								LOGGER.error("Could emit update of {}!", AbstractListenable.this, throwable);
-							}
-							emission = emission.getNext();
-						}
+				emitPendingUpdates();
+			} finally {
+				EMITTER.set(this, null);
+			}
+			if (!hasPendingWork()) {
+				return;
+			}
+		}
+	}
+
+	private void emitPendingUpdates() {
+		while (true) {
+			final var currentState = state;
+			final var oldState = waitUntilInitialized(currentState);
+			final var oldForwarders = oldState.forwarders;
+			final var newForwarders = oldForwarders.clean();
+			if (newForwarders == oldForwarders && oldState.emission == null) {
+				if (oldForwarders.isEmpty()) {
+					if (STRONG_REFERENCES_TO_OBSERVED.remove(this)) {
+						onUnobserved();
 					}
+				} else {
+					STRONG_REFERENCES_TO_OBSERVED.add(this);
 				}
-			} finally {
-				EMITTING.set(this, 0);
+				return;
+			}
+			final var newState = compact(oldState.withoutEmission(newForwarders));
+			if (STATE_UPDATER.compareAndSet(this, currentState, newState)) {
+				final var emission = oldState.emission;
+				if (emission != null) {
+					emission.emitWithPreviousEmissions();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Called after the last listener of this listenable has been removed or
+	 * garbage collected. It is called from the same thread that emits updates.
+	 */
+	protected void onUnobserved() {}
+
+	final boolean isInitialized() {
+		return !(state instanceof State<?>) || state instanceof InitializedState<?>;
+	}
+
+	/**
+	 * Returns the number of listeners with the given strength, without waiting for
+	 * this listenable to be initialized.
+	 */
+	final int getNumberOfListeners(ReferenceStrength strength) {
+		if (!(state instanceof ValueState<?> valueState)) {
+			return 0;
+		}
+		final var forwarders = valueState.forwarders;
+		var numberOfListeners = 0;
+		for (var index = 0; index < forwarders.size(); index ++) {
+			final var isWeak = forwarders.getEntry(index) instanceof WeakImmutableMapEntry<?>;
+			if (isWeak == (strength == WEAK_REFERENCE)) {
+				numberOfListeners ++;
 			}
 		}
+		return numberOfListeners;
+	}
+
+	/**
+	 * Returns the number of updates that have been committed but not yet emitted.
+	 */
+	final int getNumberOfPendingEmissions() {
+		if (state instanceof ValueState<?> valueState && valueState.emission != null) {
+			return valueState.emission.depth;
+		}
+		return 0;
+	}
+
+	final boolean isObserved() {
+		return state instanceof ValueState<?> valueState && !valueState.forwarders.isEmpty();
+	}
+
+	private boolean hasPendingWork() {
+		final var currentState = state;
+		if (currentState instanceof ValueState<?> valueState) {
+			if (valueState.emission != null) {
+				return true;
+			}
+			return valueState.forwarders.isEmpty() == STRONG_REFERENCES_TO_OBSERVED.contains(this);
+		}
+		if (currentState instanceof State<?>) {
+			return false;
+		}
+		return STRONG_REFERENCES_TO_OBSERVED.contains(this);
 	}
 
 }
\ No newline at end of file
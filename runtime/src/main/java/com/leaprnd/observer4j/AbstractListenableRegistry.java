@@ -0,0 +1,402 @@
+package com.leaprnd.observer4j;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+
+import static com.leaprnd.observer4j.AbstractListenable.DIRECT_EXECUTOR;
+import static java.lang.Integer.bitCount;
+import static java.lang.Integer.numberOfTrailingZeros;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Stores the values of many keyed entities in sharded open-addressing tables
+ * instead of one {@link AbstractListenable} per entity. A {@link Listenable}
+ * view of a key is only created when {@link #listenable} is invoked and is only
+ * weakly referenced by this registry, so the per-key cost of listening is only
+ * paid for keys that are actually observed.
+ *
+ * Views are notified after the table has been updated. When several updates of
+ * the same key race, a view may skip directly to the latest value.
+ */
+public abstract class AbstractListenableRegistry<K, T> {
+
+	private static final int DEFAULT_NUMBER_OF_SHARDS = 64;
+	private static final int INITIAL_CAPACITY_OF_SHARD = 16;
+
+	private static final class Shard {
+
+		private Object[] table = new Object[2 * INITIAL_CAPACITY_OF_SHARD];
+		private int size = 0;
+
+		private int indexOf(Object key) {
+			final var table = this.table;
+			final var mask = table.length - 1;
+			var index = hash(key) << 1 & mask;
+			while (true) {
+				final var otherKey = table[index];
+				if (otherKey == null) {
+					return -index - 1;
+				}
+				if (otherKey.equals(key)) {
+					return index;
+				}
+				index = index + 2 & mask;
+			}
+		}
+
+		private Object get(int index) {
+			return table[index + 1];
+		}
+
+		private void set(int index, Object slot) {
+			table[index + 1] = slot;
+		}
+
+		private void insert(int insertionPoint, Object key, Object slot) {
+			final var index = -insertionPoint - 1;
+			table[index] = key;
+			table[index + 1] = slot;
+			if (++ size > table.length >>> 2) {
+				resize();
+			}
+		}
+
+		private void resize() {
+			final var oldTable = table;
+			table = new Object[oldTable.length << 1];
+			for (var index = 0; index < oldTable.length; index += 2) {
+				final var key = oldTable[index];
+				if (key != null) {
+					final var newIndex = -indexOf(key) - 1;
+					table[newIndex] = key;
+					table[newIndex + 1] = oldTable[index + 1];
+				}
+			}
+		}
+
+		private void remove(int index) {
+			final var table = this.table;
+			final var mask = table.length - 1;
+			var hole = index;
+			var next = index + 2 & mask;
+			while (table[next] != null) {
+				final var ideal = hash(table[next]) << 1 & mask;
+				if ((next - ideal & mask) >= (next - hole & mask)) {
+					table[hole] = table[next];
+					table[hole + 1] = table[next + 1];
+					hole = next;
+				}
+				next = next + 2 & mask;
+			}
+			table[hole] = null;
+			table[hole + 1] = null;
+			size --;
+		}
+
+	}
+
+	private static int hash(Object key) {
+		final var hash = key.hashCode() * 0x9E3779B9;
+		return hash ^ hash >>> 16;
+	}
+
+	private static final class Observed<K, T> extends WeakReference<AbstractListenable<T>> {
+
+		private final K key;
+		private T value;
+
+		private Observed(AbstractListenable<T> view, K key, T value, ReferenceQueue<AbstractListenable<T>> queue) {
+			super(view, queue);
+			this.key = key;
+			this.value = value;
+		}
+
+	}
+
+	private final class View extends AbstractListenable<T> {
+
+		private final K key;
+		private boolean initialized;
+
+		private View(K key) {
+			super(AbstractListenableRegistry.this.executor);
+			this.key = key;
+			this.initialized = false;
+		}
+
+		private View(K key, T initialValue) {
+			super(AbstractListenableRegistry.this.executor, initialValue);
+			this.key = key;
+			this.initialized = true;
+		}
+
+		private void synchronize() {
+			update(oldValue -> {
+				final var newValue = getLatestValueOf(key);
+				return newValue == null ? oldValue : newValue;
+			});
+		}
+
+		@Override
+		protected T detach(T value) {
+			return AbstractListenableRegistry.this.detach(value);
+		}
+
+		@Override
+		protected T forward(T value) {
+			return AbstractListenableRegistry.this.forward(value);
+		}
+
+		@Override
+		protected boolean tryToReplace(T oldValue, T newValue) {
+			return AbstractListenableRegistry.this.tryToReplace(oldValue, newValue);
+		}
+
+		@Override
+		protected boolean tryToRedelegate(T oldValue, T newValue) {
+			return AbstractListenableRegistry.this.tryToRedelegate(oldValue, newValue);
+		}
+
+		@Override
+		protected boolean tryToSkipUpdate(T oldValue, T newValue) {
+			return oldValue == newValue || AbstractListenableRegistry.this.tryToSkipUpdate(oldValue, newValue);
+		}
+
+	}
+
+	protected final Executor executor;
+
+	private final Shard[] shards;
+	private final int shift;
+	private final ReferenceQueue<AbstractListenable<T>> collectedViews = new ReferenceQueue<>();
+
+	protected AbstractListenableRegistry() {
+		this(DIRECT_EXECUTOR);
+	}
+
+	protected AbstractListenableRegistry(Executor executor) {
+		this(executor, DEFAULT_NUMBER_OF_SHARDS);
+	}
+
+	protected AbstractListenableRegistry(Executor executor, int numberOfShards) {
+		if (numberOfShards < 1 || bitCount(numberOfShards) != 1) {
+			throw new IllegalArgumentException("The number of shards must be a positive power of two!");
+		}
+		this.executor = executor;
+		this.shards = new Shard[numberOfShards];
+		this.shift = Integer.SIZE - numberOfTrailingZeros(numberOfShards);
+		for (var index = 0; index < numberOfShards; index ++) {
+			shards[index] = new Shard();
+		}
+	}
+
+	private Shard getShardOf(Object key) {
+		return shift == Integer.SIZE ? shards[0] : shards[hash(key) >>> shift];
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, T> T getValueOf(Object slot) {
+		if (slot instanceof Observed<?, ?> observed) {
+			return (T) observed.value;
+		}
+		return (T) slot;
+	}
+
+	private T getLatestValueOf(K key) {
+		final var shard = getShardOf(key);
+		synchronized (shard) {
+			final var index = shard.indexOf(key);
+			return index < 0 ? null : getValueOf(shard.get(index));
+		}
+	}
+
+	/**
+	 * @return A detached copy of the current value of the provided key, or null if
+	 *         there is no value.
+	 */
+	public final T get(K key) {
+		final var value = getLatestValueOf(requireNonNull(key));
+		return value == null ? null : detach(value);
+	}
+
+	/**
+	 * @return A {@link Listenable} of the provided key. If the key has no value,
+	 *         the {@link Listenable} will block until one is put.
+	 */
+	@SuppressWarnings("unchecked")
+	public final Listenable<T> listenable(K key) {
+		requireNonNull(key);
+		expungeCollectedViews();
+		final var shard = getShardOf(key);
+		synchronized (shard) {
+			final var index = shard.indexOf(key);
+			final T value;
+			if (index < 0) {
+				value = null;
+			} else {
+				final var slot = shard.get(index);
+				if (slot instanceof Observed<?, ?> observed) {
+					final var view = observed.get();
+					if (view != null) {
+						return (Listenable<T>) view;
+					}
+				}
+				value = getValueOf(slot);
+			}
+			final var view = value == null ? new View(key) : new View(key, value);
+			final var observed = new Observed<>(view, key, value, collectedViews);
+			if (index < 0) {
+				shard.insert(index, key, observed);
+			} else {
+				shard.set(index, observed);
+			}
+			return view;
+		}
+	}
+
+	protected final void put(K key, T newValue) {
+		requireNonNull(newValue);
+		update(key, newValue, null);
+	}
+
+	/**
+	 * Applies the provided action to the current value of the provided key, if
+	 * there is one. The action is invoked while the shard of the key is locked.
+	 *
+	 * @return A detached copy of the new value, or null if there was no value.
+	 */
+	protected final T update(K key, UnaryOperator<T> action) {
+		requireNonNull(action);
+		final var newValue = update(key, null, action);
+		return newValue == null ? null : detach(newValue);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T update(K key, T newValue, UnaryOperator<T> action) {
+		requireNonNull(key);
+		expungeCollectedViews();
+		final var shard = getShardOf(key);
+		final View view;
+		synchronized (shard) {
+			final var index = shard.indexOf(key);
+			if (index < 0) {
+				if (action == null) {
+					shard.insert(index, key, newValue);
+				}
+				return newValue;
+			}
+			final var slot = shard.get(index);
+			final T oldValue = getValueOf(slot);
+			if (action != null) {
+				if (oldValue == null) {
+					return null;
+				}
+				newValue = requireNonNull(action.apply(oldValue));
+			}
+			if (oldValue != null && tryToSkipUpdate(oldValue, newValue)) {
+				return oldValue;
+			}
+			if (slot instanceof Observed<?, ?> observed) {
+				((Observed<K, T>) observed).value = newValue;
+				view = (View) observed.get();
+				if (view == null) {
+					shard.set(index, newValue);
+					return newValue;
+				}
+				if (!view.initialized) {
+					view.initialized = true;
+					view.initialize(newValue);
+					return newValue;
+				}
+			} else {
+				shard.set(index, newValue);
+				return newValue;
+			}
+		}
+		view.synchronize();
+		return newValue;
+	}
+
+	/**
+	 * Removes the value of the provided key. The listeners of the key are not
+	 * notified and will be notified of the next value that is put.
+	 */
+	@SuppressWarnings("unchecked")
+	protected final boolean remove(K key) {
+		requireNonNull(key);
+		expungeCollectedViews();
+		final var shard = getShardOf(key);
+		synchronized (shard) {
+			final var index = shard.indexOf(key);
+			if (index < 0) {
+				return false;
+			}
+			final var slot = shard.get(index);
+			if (slot instanceof Observed<?, ?> observed && !observed.refersTo(null)) {
+				final var hadValue = observed.value != null;
+				((Observed<K, T>) observed).value = null;
+				return hadValue;
+			}
+			final var hadValue = getValueOf(slot) != null;
+			shard.remove(index);
+			return hadValue;
+		}
+	}
+
+	/**
+	 * @return The number of keys that either have a value or are observed.
+	 */
+	public final int size() {
+		var size = 0;
+		for (final var shard : shards) {
+			synchronized (shard) {
+				size += shard.size;
+			}
+		}
+		return size;
+	}
+
+	private void expungeCollectedViews() {
+		while (true) {
+			final var reference = collectedViews.poll();
+			if (reference == null) {
+				return;
+			}
+			final var observed = (Observed<?, ?>) reference;
+			final var shard = getShardOf(observed.key);
+			synchronized (shard) {
+				final var index = shard.indexOf(observed.key);
+				if (index >= 0 && shard.get(index) == observed) {
+					if (observed.value == null) {
+						shard.remove(index);
+					} else {
+						shard.set(index, observed.value);
+					}
+				}
+			}
+		}
+	}
+
+	protected T detach(T value) {
+		return value;
+	}
+
+	protected T forward(T value) {
+		return value;
+	}
+
+	protected boolean tryToReplace(T oldValue, T newValue) {
+		return false;
+	}
+
+	protected boolean tryToRedelegate(T oldValue, T newValue) {
+		return false;
+	}
+
+	protected boolean tryToSkipUpdate(T oldValue, T newValue) {
+		return newValue.equals(oldValue);
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.leaprnd.observer4j;
+
+import java.util.concurrent.Executor;
+import java.util.function.LongUnaryOperator;
+
+import static com.leaprnd.observer4j.AbstractListenable.DIRECT_EXECUTOR;
+import static com.leaprnd.observer4j.ReferenceStrength.STRONG_REFERENCE;
+import static com.leaprnd.observer4j.ReferenceStrength.WEAK_REFERENCE;
+import static com.leaprnd.observer4j.ReturnValue.RETURN_NEW_VALUE;
+
+/**
+ * A listenable of a primitive long, built on {@link AbstractPrimitiveListenable}.
+ * Updates and notifications of {@link LongSynchronousListener}s do not box. Every other
+ * kind of {@link Listener} is notified with boxed values. It is not an
+ * {@link AbstractListenable}, so it cannot be passed to
+ * {@link AbstractListenable#snapshotAll}, {@link UpdateJournal} or the bulk
+ * removal of {@link SubscriptionScope}.
+ */
+public abstract non-sealed class AbstractLongListenable extends AbstractPrimitiveListenable<Long>
+	implements LongListenable {
+
+	protected AbstractLongListenable() {
+		this(DIRECT_EXECUTOR);
+	}
+
+	protected AbstractLongListenable(Executor executor) {
+		super(executor);
+	}
+
+	protected AbstractLongListenable(long initialValue) {
+		this(DIRECT_EXECUTOR, initialValue);
+	}
+
+	protected AbstractLongListenable(Executor executor, long initialValue) {
+		super(executor, initialValue);
+	}
+
+	public final void initialize(long initialValue) {
+		initializeWithBits(initialValue);
+	}
+
+	protected void emitUpdateGlobally(long oldValue, long newValue) {}
+
+	@Override
+	final void emitUpdateOfBitsGlobally(long oldBits, long newBits) {
+		emitUpdateGlobally(oldBits, newBits);
+	}
+
+	@Override
+	final Long box(long bits) {
+		return bits;
+	}
+
+	@Override
+	final boolean tryToNotifyWithoutBoxing(SynchronousListener<? super Long> listener, long oldBits, long newBits) {
+		if (listener instanceof LongSynchronousListener longListener) {
+			longListener.onUpdate(oldBits, newBits);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public final long takeSnapshotAsLong() {
+		return takeSnapshotAsBits();
+	}
+
+	@Override
+	public final long listenWith(WeakLongSynchronousListener listener) {
+		return listenWithoutBoxing(listener, WEAK_REFERENCE);
+	}
+
+	@Override
+	public final long listenWith(StrongLongSynchronousListener listener) {
+		return listenWithoutBoxing(listener, STRONG_REFERENCE);
+	}
+
+	protected final long update(LongUnaryOperator action) {
+		return update(action, RETURN_NEW_VALUE);
+	}
+
+	protected final long update(LongUnaryOperator action, ReturnValue returnValue) {
+		return updateBits(action, returnValue);
+	}
+
+	protected final long update(long newValue) {
+		return update(newValue, RETURN_NEW_VALUE);
+	}
+
+	protected final long update(long newValue, ReturnValue returnValue) {
+		return updateBits(newValue, returnValue);
+	}
+
+	@Override
+	final boolean tryToSkipUpdateOfBits(long oldBits, long newBits) {
+		return tryToSkipUpdate(oldBits, newBits);
+	}
+
+	protected boolean tryToSkipUpdate(long oldValue, long newValue) {
+		return newValue == oldValue;
+	}
+
+}
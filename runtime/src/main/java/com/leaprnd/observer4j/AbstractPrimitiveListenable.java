@@ -0,0 +1,533 @@
+package com.leaprnd.observer4j;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.LongUnaryOperator;
+
+import static com.leaprnd.observer4j.AbstractListenable.CLEANER;
+import static com.leaprnd.observer4j.AbstractListenable.STRONG_REFERENCES_TO_OBSERVED;
+import static com.leaprnd.observer4j.EmptyImmutableMap.emptyImmutableMap;
+import static com.leaprnd.observer4j.Exceptions.unchecked;
+import static com.leaprnd.observer4j.ReferenceStrength.STRONG_REFERENCE;
+import static com.leaprnd.observer4j.ReferenceStrength.WEAK_REFERENCE;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.empty;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The state machine shared by the listenables of primitive values, which hold
+ * their value as the bits of a long. Listeners of the primitive type are
+ * notified with those bits, converted back by the subclass.
+ *
+ * Boxed listeners are notified with boxes that are kept in the state: once a
+ * boxed listener is listening, every update boxes its new value once, and the
+ * box of the old value is the one that the same listeners were last notified
+ * of, or that {@link #listenWith(StrongSynchronousListener)} returned.
+ */
+public abstract sealed class AbstractPrimitiveListenable<B> implements Listenable<B>, Runnable
+	permits AbstractLongListenable, AbstractIntListenable, AbstractDoubleListenable {
+
+	private static final VarHandle STATE_UPDATER;
+
+	static {
+		try {
+			STATE_UPDATER = MethodHandles.lookup().findVarHandle(AbstractPrimitiveListenable.class, "state", State.class);
+		} catch (ReflectiveOperationException exception) {
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+
+	private static final class Emission<B> {
+
+		private final Emission<B> previous;
+		private final int depth;
+		private final AbstractPrimitiveListenable<B> listenable;
+		private final long oldBits;
+		private final long newBits;
+		private final B oldBox;
+		private final B newBox;
+		private final ImmutableMap<B> listeners;
+
+		private Emission(
+			Emission<B> previous,
+			AbstractPrimitiveListenable<B> listenable,
+			long oldBits,
+			long newBits,
+			B oldBox,
+			B newBox,
+			ImmutableMap<B> listeners
+		) {
+			this.previous = previous;
+			this.depth = previous == null ? 1 : previous.depth + 1;
+			this.listenable = listenable;
+			this.oldBits = oldBits;
+			this.newBits = newBits;
+			this.oldBox = oldBox;
+			this.newBox = newBox;
+			this.listeners = listeners;
+		}
+
+		@SuppressWarnings("rawtypes")
+		private void emitWithPreviousEmissions() {
+			if (previous == null) {
+				emit();
+				return;
+			}
+			final var emissions = new Emission[depth];
+			var emission = this;
+			for (var index = depth - 1; index >= 0; index --) {
+				emissions[index] = emission;
+				emission = emission.previous;
+			}
+			for (final var each : emissions) {
+				each.emit();
+			}
+		}
+
+		private void emit() {
+			try {
+				listenable.emitUpdateOfBitsGlobally(oldBits, newBits);
+			} catch (Throwable throwable) {
+				LOGGER.error("Could emit update of {}!", listenable, throwable);
+			}
+			final var size = listeners.size();
+			for (var index = 0; index < size; index ++) {
+				final var listener = listeners.getEntry(index).listener();
+				if (listener == null) {
+					continue;
+				}
+				try {
+					if (!listenable.tryToNotifyWithoutBoxing(listener, oldBits, newBits)) {
+						listener.onUpdate(oldBox, newBox);
+					}
+				} catch (Throwable throwable) {
+					LOGGER.error("Could emit update of {}!", listenable, throwable);
+				}
+			}
+		}
+
+	}
+
+	private sealed interface State {
+		ValueState<?> waitUntilInitialized();
+		boolean complete(InitializedState initializedState);
+	}
+
+	private abstract sealed class UninitializedState implements State {
+		@Override
+		public boolean complete(InitializedState initializedState) {
+			return compareAndSetState(this, initializedState);
+		}
+	}
+
+	private final class InitialState extends UninitializedState {
+		@Override
+		public ValueState<?> waitUntilInitialized() {
+			return compareAndExchangeState(this, new InitializingState()).waitUntilInitialized();
+		}
+	}
+
+	private final class InitializingState extends UninitializedState {
+
+		private final CompletableFuture<InitializedState> future = new CompletableFuture<>();
+
+		@Override
+		public ValueState<?> waitUntilInitialized() {
+			try {
+				return future.get().waitUntilInitialized();
+			} catch (InterruptedException | ExecutionException exception) {
+				throw unchecked(exception);
+			}
+		}
+
+		@Override
+		public boolean complete(InitializedState newState) {
+			return super.complete(newState) && future.complete(newState);
+		}
+
+	}
+
+	private sealed interface InitializedState extends State {
+		@Override
+		default boolean complete(InitializedState initializedState) {
+			throw new IllegalStateException("Already initialized!");
+		}
+	}
+
+	private record ExceptionState(Throwable exception) implements InitializedState {
+
+		public ExceptionState {
+			requireNonNull(exception);
+		}
+
+		@Override
+		public ValueState<?> waitUntilInitialized() {
+			throw unchecked(exception);
+		}
+
+	}
+
+	/**
+	 * The box is null until a boxed listener listens, and stays set for as long as
+	 * there are listeners.
+	 */
+	private record ValueState<B> (long bits, B box, ImmutableMap<B> listeners, Emission<B> emission)
+		implements InitializedState {
+
+		public ValueState(long bits) {
+			this(bits, null, emptyImmutableMap(), null);
+		}
+
+		public ValueState {
+			requireNonNull(listeners);
+		}
+
+		@Override
+		public ValueState<B> waitUntilInitialized() {
+			return this;
+		}
+
+		public ValueState<B> with(ImmutableMap<B> newListeners) {
+			if (newListeners == listeners) {
+				return this;
+			}
+			return new ValueState<>(bits, box, newListeners.clean(), emission);
+		}
+
+	}
+
+	protected final Executor executor;
+
+	@NotNull
+	private volatile State state;
+
+	AbstractPrimitiveListenable(Executor executor) {
+		this.executor = executor;
+		this.state = new InitialState();
+		ObserverRegistry.register(this);
+	}
+
+	AbstractPrimitiveListenable(Executor executor, long initialBits) {
+		this.executor = executor;
+		this.state = new ValueState<B>(initialBits);
+		ObserverRegistry.register(this);
+	}
+
+	final void initializeWithBits(long initialBits) {
+		initialize(new ValueState<B>(initialBits));
+	}
+
+	public final void initialize(Throwable exception) {
+		initialize(new ExceptionState(exception));
+	}
+
+	private void initialize(InitializedState initializedState) {
+		while (true) {
+			if (state.complete(initializedState)) {
+				return;
+			}
+		}
+	}
+
+	abstract B box(long bits);
+
+	abstract void emitUpdateOfBitsGlobally(long oldBits, long newBits);
+
+	/**
+	 * Whether a subclass of a primitive listenable overrides
+	 * {@code emitUpdateGlobally}, in which case every update must be emitted even
+	 * when there are no listeners.
+	 */
+	private static final ClassValue<Boolean> EMITS_UPDATES_GLOBALLY = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			for (var current = type; current.getSuperclass() != AbstractPrimitiveListenable.class; current = current.getSuperclass()) {
+				for (final var method : current.getDeclaredMethods()) {
+					if (method.getName().equals("emitUpdateGlobally") && method.getParameterCount() == 2) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	};
+
+	/**
+	 * Notifies the listener of the primitive update and returns true if it is a
+	 * listener of the primitive type.
+	 */
+	abstract boolean tryToNotifyWithoutBoxing(SynchronousListener<? super B> listener, long oldBits, long newBits);
+
+	abstract boolean tryToSkipUpdateOfBits(long oldBits, long newBits);
+
+	@SuppressWarnings("unchecked")
+	private ValueState<B> waitUntilInitialized() {
+		return (ValueState<B>) state.waitUntilInitialized();
+	}
+
+	final long takeSnapshotAsBits() {
+		return waitUntilInitialized().bits;
+	}
+
+	@Override
+	public final B takeSnapshot() {
+		return boxOf(waitUntilInitialized());
+	}
+
+	private B boxOf(ValueState<B> valueState) {
+		final var box = valueState.box;
+		return box == null ? box(valueState.bits) : box;
+	}
+
+	@Override
+	public final B listenWith(Listener<? super B> listener) {
+		return listener.listenTo(this);
+	}
+
+	@Override
+	public final B listenWith(WeakSynchronousListener<? super B> listener) {
+		return listenWith(listener, WEAK_REFERENCE, true).box;
+	}
+
+	@Override
+	public final B listenWith(StrongSynchronousListener<? super B> listener) {
+		return listenWith(listener, STRONG_REFERENCE, true).box;
+	}
+
+	final long listenWithoutBoxing(SynchronousListener<? super B> listener, ReferenceStrength strategy) {
+		return listenWith(listener, strategy, false).bits;
+	}
+
+	/**
+	 * Returns the state that the listener was added to, whose box is set if the
+	 * listener is boxed.
+	 */
+	private ValueState<B> listenWith(SynchronousListener<? super B> listener, ReferenceStrength strategy, boolean boxed) {
+		while (true) {
+			final var oldState = waitUntilInitialized();
+			final var oldListeners = oldState.listeners;
+			final var newListeners = oldListeners.with(listener, strategy, null, null);
+			if (newListeners == oldListeners && (!boxed || oldState.box != null)) {
+				return oldState;
+			}
+			final ValueState<B> newState;
+			if (boxed && oldState.box == null) {
+				newState = new ValueState<>(oldState.bits, box(oldState.bits), newListeners.clean(), oldState.emission);
+			} else {
+				newState = oldState.with(newListeners);
+			}
+			if (compareAndSetState(oldState, newState)) {
+				if (newListeners != oldListeners) {
+					CLEANER.register(listener, this);
+				}
+				return newState;
+			}
+		}
+	}
+
+	@Override
+	public final Optional<? extends B> relistenWith(Listener<? super B> listener) {
+		return listener.relistenTo(this);
+	}
+
+	@Override
+	public final Optional<B> relistenWith(SynchronousListener<? super B> listener) {
+		final var valueState = waitUntilInitialized();
+		if (valueState.listeners.contains(listener)) {
+			return Optional.of(boxOf(valueState));
+		} else {
+			return empty();
+		}
+	}
+
+	@Override
+	public final boolean unlistenWith(Listener<? super B> listener) {
+		return listener.unlistenTo(this);
+	}
+
+	@Override
+	public final boolean unlistenWith(SynchronousListener<? super B> listener) {
+		while (true) {
+			final var oldState = waitUntilInitialized();
+			final var oldListeners = oldState.listeners;
+			final var newListeners = oldListeners.without(listener);
+			if (oldListeners == newListeners) {
+				return false;
+			}
+			final var newState = oldState.with(newListeners);
+			if (compareAndSetState(oldState, newState)) {
+				return true;
+			}
+		}
+	}
+
+	final long updateBits(LongUnaryOperator action, ReturnValue returnValue) {
+		while (true) {
+			final var oldState = waitUntilInitialized();
+			final var oldBits = oldState.bits;
+			final var newBits = action.applyAsLong(oldBits);
+			if (tryToUpdate(oldState, newBits)) {
+				return switch (returnValue) {
+					case RETURN_OLD_VALUE -> oldBits;
+					case RETURN_NEW_VALUE -> newBits;
+				};
+			}
+		}
+	}
+
+	final long updateBits(long newBits, ReturnValue returnValue) {
+		while (true) {
+			final var oldState = waitUntilInitialized();
+			final var oldBits = oldState.bits;
+			if (tryToUpdate(oldState, newBits)) {
+				return switch (returnValue) {
+					case RETURN_OLD_VALUE -> oldBits;
+					case RETURN_NEW_VALUE -> newBits;
+				};
+			}
+		}
+	}
+
+	/**
+	 * Returns false if the state changed concurrently. A skipped update leaves the
+	 * state as it is, and the emitter is only scheduled for an update that has
+	 * something to emit.
+	 */
+	private boolean tryToUpdate(ValueState<B> oldState, long newBits) {
+		if (tryToSkipUpdateOfBits(oldState.bits, newBits)) {
+			return true;
+		}
+		final var newState = update(oldState, newBits);
+		if (!STATE_UPDATER.compareAndSet(this, oldState, newState)) {
+			return false;
+		}
+		if (newState.emission != oldState.emission) {
+			executor.execute(this);
+		}
+		return true;
+	}
+
+	private ValueState<B> update(ValueState<B> oldState, long newBits) {
+		final var oldBits = oldState.bits;
+		final var listeners = oldState.listeners;
+		if (listeners.isEmpty() && !EMITS_UPDATES_GLOBALLY.get(getClass())) {
+			return new ValueState<>(newBits, null, listeners, oldState.emission);
+		}
+		final var oldBox = oldState.box;
+		final var newBox = oldBox == null || listeners.isEmpty() ? null : box(newBits);
+		final var emission = new Emission<>(oldState.emission, this, oldBits, newBits, oldBox, newBox, listeners);
+		return new ValueState<>(newBits, newBox, listeners, emission);
+	}
+
+	private boolean compareAndSetState(State expectedState, State newState) {
+		return compareAndExchangeState(expectedState, newState) == expectedState;
+	}
+
+	private State compareAndExchangeState(State expectedState, State newState) {
+		final var oldState = (State) STATE_UPDATER.compareAndExchange(this, expectedState, newState);
+		if (oldState == expectedState) {
+			executor.execute(this);
+		}
+		return oldState;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<
+		AbstractPrimitiveListenable
+	> EMITTING = newUpdater(AbstractPrimitiveListenable.class, "emitting");
+
+	private volatile int emitting = 0;
+
+	private static final Logger LOGGER = getLogger(AbstractPrimitiveListenable.class);
+
+	@Override
+	public final void run() {
+		while (EMITTING.compareAndSet(this, 0, 1)) {
+			try {
+				emitPendingUpdates();
+			} finally {
+				EMITTING.set(this, 0);
+			}
+			if (!hasPendingWork()) {
+				return;
+			}
+		}
+	}
+
+	private void emitPendingUpdates() {
+		while (true) {
+			final var oldState = waitUntilInitialized();
+			final var oldListeners = oldState.listeners;
+			final var newListeners = oldListeners.clean();
+			if (newListeners == oldListeners && oldState.emission == null) {
+				if (oldListeners.isEmpty()) {
+					STRONG_REFERENCES_TO_OBSERVED.remove(this);
+				} else {
+					STRONG_REFERENCES_TO_OBSERVED.add(this);
+				}
+				return;
+			}
+			final var newBox = newListeners.isEmpty() ? null : oldState.box;
+			final var newState = new ValueState<>(oldState.bits, newBox, newListeners, null);
+			if (STATE_UPDATER.compareAndSet(this, oldState, newState)) {
+				final var emission = oldState.emission;
+				if (emission != null) {
+					emission.emitWithPreviousEmissions();
+				}
+			}
+		}
+	}
+
+	final boolean isInitialized() {
+		return state instanceof InitializedState;
+	}
+
+	/**
+	 * Returns the number of listeners with the given strength, without waiting for
+	 * this listenable to be initialized.
+	 */
+	final int getNumberOfListeners(ReferenceStrength strength) {
+		if (!(state instanceof ValueState<?> valueState)) {
+			return 0;
+		}
+		final var listeners = valueState.listeners;
+		var numberOfListeners = 0;
+		for (var index = 0; index < listeners.size(); index ++) {
+			final var isWeak = listeners.getEntry(index) instanceof WeakImmutableMapEntry<?>;
+			if (isWeak == (strength == WEAK_REFERENCE)) {
+				numberOfListeners ++;
+			}
+		}
+		return numberOfListeners;
+	}
+
+	/**
+	 * Returns the number of updates that have been committed but not yet emitted.
+	 */
+	final int getNumberOfPendingEmissions() {
+		if (state instanceof ValueState<?> valueState && valueState.emission != null) {
+			return valueState.emission.depth;
+		}
+		return 0;
+	}
+
+	private boolean hasPendingWork() {
+		if (state instanceof ValueState<?> valueState) {
+			if (valueState.emission != null) {
+				return true;
+			}
+			return valueState.listeners.isEmpty() == STRONG_REFERENCES_TO_OBSERVED.contains(this);
+		}
+		return false;
+	}
+
+}
@@ -35,6 +35,7 @@ public abstract class AbstractRefreshable {
 
 	protected AbstractRefreshable(Executor executor) {
 		this.executor = executor;
+		ObserverRegistry.register(this);
 	}
 
 	public final void requestAsynchronousRefresh() {
@@ -50,12 +51,9 @@ public abstract class AbstractRefreshable {
 	}
 
 	private boolean tryToRequestRefresh() {
-		final var state = STATE_UPDATER.get(this);
-		if (state == CLOSED) {
-			return false;
-		}
 		COUNTER_UPDATER.incrementAndGet(this);
-		return state != FROZEN;
+		final var state = STATE_UPDATER.get(this);
+		return state != CLOSED && state != FROZEN;
 	}
 
 	public final boolean freeze() {
@@ -72,7 +70,7 @@ public abstract class AbstractRefreshable {
 	}
 
 	private void refreshIfNecessary() {
-		if (STATE_UPDATER.compareAndSet(this, WAITING, REFRESHING)) {
+		while (STATE_UPDATER.compareAndSet(this, WAITING, REFRESHING)) {
 			try {
 				while (true) {
 					final int numberOfRequests = COUNTER_UPDATER.getAndSet(this, 0);
@@ -98,11 +96,26 @@ public abstract class AbstractRefreshable {
 					throw new IllegalStateException("This should not be possible");
 				}
 			}
+			if (COUNTER_UPDATER.get(this) == 0) {
+				return;
+			}
 		}
 	}
 
 	protected abstract void refresh(int numberOfRequests);
 
+	final State getState() {
+		return STATE_UPDATER.get(this);
+	}
+
+	/**
+	 * Returns the number of refreshes that have been requested since the last
+	 * refresh started.
+	 */
+	final int getNumberOfPendingRequests() {
+		return COUNTER_UPDATER.get(this);
+	}
+
 	public final boolean isOpen() {
 		return STATE_UPDATER.get(this) != CLOSED;
 	}
@@ -40,6 +40,14 @@ public abstract class AbstractSubstitutableForwarder<T> {
 		return state.delegate;
 	}
 
+	/**
+	 * Returns the flags of the fields that have been accessed through this
+	 * forwarder so far. The result is never negative.
+	 */
+	public final int getFlagsOfAccessedFields() {
+		return state.flagsOfFields;
+	}
+
 	protected final T recordAccessToField(int indexOfField) {
 		while (true) {
 			final var oldState = state;
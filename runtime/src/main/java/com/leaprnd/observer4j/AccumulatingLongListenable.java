@@ -0,0 +1,136 @@
+package com.leaprnd.observer4j;
+
+import org.slf4j.Logger;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.LongBinaryOperator;
+
+import static com.leaprnd.observer4j.AbstractListenable.DIRECT_EXECUTOR;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * A long listenable for aggregates that are written by many threads, such as
+ * counters, sums and watermarks. Writes are accumulated into the striped,
+ * padded cells of a {@link LongAccumulator}, so they neither contend on the
+ * state of this listenable nor allocate. The cells are only folded into the
+ * value seen by listeners when it is {@link #publish published}, either on
+ * demand or periodically once {@link #start started}.
+ */
+public final class AccumulatingLongListenable extends AbstractLongListenable implements AutoCloseable {
+
+	private static final Logger LOGGER = getLogger(AccumulatingLongListenable.class);
+
+	/**
+	 * Holds the listenable weakly, so that a scheduler does not keep it reachable
+	 * once it has been forgotten without being closed.
+	 */
+	private static final class Publication implements Runnable {
+
+		private final WeakReference<AccumulatingLongListenable> reference;
+		private volatile ScheduledFuture<?> future;
+
+		private Publication(AccumulatingLongListenable listenable) {
+			reference = new WeakReference<>(listenable);
+		}
+
+		@Override
+		public void run() {
+			final var listenable = reference.get();
+			if (listenable == null) {
+				final var future = this.future;
+				if (future != null) {
+					future.cancel(false);
+				}
+				return;
+			}
+			try {
+				listenable.publish();
+			} catch (Throwable throwable) {
+				LOGGER.error("Could not publish {}!", listenable, throwable);
+			}
+		}
+
+	}
+
+	private final LongAccumulator accumulator;
+	private ScheduledFuture<?> publication;
+	private boolean closed = false;
+
+	/**
+	 * @param function A side-effect-free, associative and commutative function,
+	 *                 as required by {@link LongAccumulator}.
+	 */
+	public AccumulatingLongListenable(LongBinaryOperator function, long identity) {
+		this(DIRECT_EXECUTOR, function, identity);
+	}
+
+	public AccumulatingLongListenable(Executor executor, LongBinaryOperator function, long identity) {
+		super(executor, identity);
+		accumulator = new LongAccumulator(function, identity);
+	}
+
+	public static AccumulatingLongListenable sum() {
+		return new AccumulatingLongListenable(Long::sum, 0);
+	}
+
+	public static AccumulatingLongListenable maximum() {
+		return new AccumulatingLongListenable(Long::max, Long.MIN_VALUE);
+	}
+
+	public void accumulate(long value) {
+		accumulator.accumulate(value);
+	}
+
+	/**
+	 * Folds the cells and notifies listeners if the result differs from the value
+	 * that was last published. Writes that are concurrent with this method may or
+	 * may not be included; they will be by the next publication.
+	 */
+	public long publish() {
+		return update(accumulator.get());
+	}
+
+	/**
+	 * Publishes the accumulated value every period until this listenable is
+	 * closed or is no longer reachable. A publication that throws is logged and
+	 * does not stop the ones that follow it.
+	 *
+	 * @throws IllegalStateException if this listenable has already been started
+	 *                               or closed.
+	 */
+	public synchronized void start(ScheduledExecutorService scheduler, Duration period) {
+		if (period.isNegative() || period.isZero()) {
+			throw new IllegalArgumentException("The period must be positive!");
+		}
+		if (closed) {
+			throw new IllegalStateException("This listenable has already been closed!");
+		}
+		if (publication != null) {
+			throw new IllegalStateException("This listenable has already been started!");
+		}
+		final var nanoseconds = period.toNanos();
+		final var task = new Publication(this);
+		publication = task.future = scheduler.scheduleAtFixedRate(task, nanoseconds, nanoseconds, NANOSECONDS);
+	}
+
+	/**
+	 * Stops publishing periodically, then publishes one last time.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			closed = true;
+			if (publication != null) {
+				publication.cancel(false);
+			}
+		}
+		publish();
+	}
+
+}
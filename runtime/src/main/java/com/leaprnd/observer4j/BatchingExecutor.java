@@ -0,0 +1,159 @@
+package com.leaprnd.observer4j;
+
+import org.slf4j.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static java.lang.Runtime.getRuntime;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * An {@link Executor} that queues tasks on a lock-free queue and drains them in
+ * batches from a small number of tasks submitted to another executor. It is
+ * intended for {@link AbstractRefreshable}s: when one update requests the
+ * refresh of many refreshables, the underlying executor is only handed one task
+ * per batch rather than one task per refreshable.
+ *
+ * After running a full batch, a drainer resubmits itself instead of carrying on,
+ * so that the underlying executor can interleave other work. The batch size
+ * therefore trades throughput for fairness. If the underlying executor runs the
+ * resubmitted drainer on the calling thread, such as under a caller-runs policy,
+ * or rejects it, the drainer carries on with the next batch itself rather than
+ * recursing or leaving the queued tasks stranded.
+ */
+public final class BatchingExecutor implements Executor {
+
+	private static final int DEFAULT_BATCH_SIZE = 256;
+
+	private static final AtomicIntegerFieldUpdater<BatchingExecutor> NUMBER_OF_DRAINERS = newUpdater(
+		BatchingExecutor.class,
+		"numberOfDrainers"
+	);
+
+	private static final Logger LOGGER = getLogger(BatchingExecutor.class);
+
+	private final Executor executor;
+	private final int batchSize;
+	private final int parallelism;
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private final Runnable drainer = this::drain;
+	/**
+	 * Set while a drainer resubmits itself on this thread, and cleared by the
+	 * drainer if the underlying executor runs it inline.
+	 */
+	private final ThreadLocal<Boolean> resubmitting = new ThreadLocal<>();
+	private volatile int numberOfDrainers = 0;
+
+	public BatchingExecutor(Executor executor) {
+		this(executor, DEFAULT_BATCH_SIZE, getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param batchSize   The maximum number of tasks run by a drainer before it
+	 *                    resubmits itself.
+	 * @param parallelism The maximum number of drainers submitted to the provided
+	 *                    executor at any one time.
+	 */
+	public BatchingExecutor(Executor executor, int batchSize, int parallelism) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least one!");
+		}
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("The parallelism must be at least one!");
+		}
+		this.executor = requireNonNull(executor);
+		this.batchSize = batchSize;
+		this.parallelism = parallelism;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		tasks.offer(requireNonNull(task));
+		submitDrainerIfNecessary();
+	}
+
+	private void submitDrainerIfNecessary() {
+		while (true) {
+			final var oldNumberOfDrainers = numberOfDrainers;
+			if (oldNumberOfDrainers >= parallelism) {
+				return;
+			}
+			if (NUMBER_OF_DRAINERS.compareAndSet(this, oldNumberOfDrainers, oldNumberOfDrainers + 1)) {
+				submitDrainer();
+				return;
+			}
+		}
+	}
+
+	private void submitDrainer() {
+		try {
+			executor.execute(drainer);
+		} catch (Throwable throwable) {
+			NUMBER_OF_DRAINERS.decrementAndGet(this);
+			throw throwable;
+		}
+	}
+
+	private void drain() {
+		if (resubmitting.get() == TRUE) {
+			resubmitting.set(FALSE);
+			return;
+		}
+		while (runBatch()) {
+			if (!resubmit()) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Runs up to a batch of tasks. Returns false once the queue has been emptied,
+	 * in which case this drainer is retired.
+	 */
+	private boolean runBatch() {
+		for (var index = 0; index < batchSize; index ++) {
+			final var task = tasks.poll();
+			if (task == null) {
+				NUMBER_OF_DRAINERS.decrementAndGet(this);
+				if (!tasks.isEmpty()) {
+					submitDrainerIfNecessary();
+				}
+				return false;
+			}
+			try {
+				task.run();
+			} catch (Throwable throwable) {
+				LOGGER.error("Could not run {}!", task, throwable);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Resubmits this drainer. Returns true if it must carry on draining on this
+	 * thread instead, because the underlying executor ran it inline or rejected it.
+	 */
+	private boolean resubmit() {
+		resubmitting.set(TRUE);
+		try {
+			executor.execute(drainer);
+			return resubmitting.get() == FALSE;
+		} catch (RejectedExecutionException exception) {
+			return true;
+		} catch (Throwable throwable) {
+			NUMBER_OF_DRAINERS.decrementAndGet(this);
+			throw throwable;
+		} finally {
+			resubmitting.remove();
+		}
+	}
+
+}
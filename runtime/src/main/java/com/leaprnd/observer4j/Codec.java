@@ -0,0 +1,15 @@
+package com.leaprnd.observer4j;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts values to and from a binary representation. Implementations must
+ * write exactly {@link #sizeOf} bytes starting at the position of the provided
+ * {@link ByteBuffer} and leave the position immediately after the last byte
+ * written or read.
+ */
+public interface Codec<T> {
+	int sizeOf(T value);
+	void encode(T value, ByteBuffer buffer);
+	T decode(ByteBuffer buffer);
+}
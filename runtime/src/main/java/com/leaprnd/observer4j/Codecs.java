@@ -0,0 +1,107 @@
+package com.leaprnd.observer4j;
+
+import java.nio.ByteBuffer;
+
+import static java.lang.Character.isHighSurrogate;
+import static java.lang.Character.isLowSurrogate;
+import static java.lang.Character.toCodePoint;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Helpers used by the codecs generated for {@link GenerateSubstitutableForwarder}.
+ * Strings are written as their length in bytes followed by their UTF-8 encoding
+ * and enums are written as their ordinal. A length or ordinal of -1 represents
+ * null.
+ */
+public final class Codecs {
+
+	private static final int NULL = -1;
+
+	private Codecs() {}
+
+	public static int sizeOf(String value) {
+		return Integer.BYTES + sizeOfUtf8(value);
+	}
+
+	private static int sizeOfUtf8(String value) {
+		if (value == null) {
+			return 0;
+		}
+		final var length = value.length();
+		var size = 0;
+		for (var index = 0; index < length; index ++) {
+			final var character = value.charAt(index);
+			if (character < 0x80) {
+				size += 1;
+			} else if (character < 0x800) {
+				size += 2;
+			} else if (isHighSurrogate(character) && index + 1 < length && isLowSurrogate(value.charAt(index + 1))) {
+				size += 4;
+				index ++;
+			} else if (isHighSurrogate(character) || isLowSurrogate(character)) {
+				size += 1;
+			} else {
+				size += 3;
+			}
+		}
+		return size;
+	}
+
+	public static void put(ByteBuffer buffer, String value) {
+		if (value == null) {
+			buffer.putInt(NULL);
+			return;
+		}
+		buffer.putInt(sizeOfUtf8(value));
+		final var length = value.length();
+		for (var index = 0; index < length; index ++) {
+			final var character = value.charAt(index);
+			if (character < 0x80) {
+				buffer.put((byte) character);
+			} else if (character < 0x800) {
+				buffer.put((byte) (0xC0 | character >> 6));
+				buffer.put((byte) (0x80 | character & 0x3F));
+			} else if (isHighSurrogate(character) && index + 1 < length && isLowSurrogate(value.charAt(index + 1))) {
+				final var codePoint = toCodePoint(character, value.charAt(++ index));
+				buffer.put((byte) (0xF0 | codePoint >> 18));
+				buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+				buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+				buffer.put((byte) (0x80 | codePoint & 0x3F));
+			} else if (isHighSurrogate(character) || isLowSurrogate(character)) {
+				buffer.put((byte) '?');
+			} else {
+				buffer.put((byte) (0xE0 | character >> 12));
+				buffer.put((byte) (0x80 | character >> 6 & 0x3F));
+				buffer.put((byte) (0x80 | character & 0x3F));
+			}
+		}
+	}
+
+	public static String getString(ByteBuffer buffer) {
+		final var size = buffer.getInt();
+		if (size == NULL) {
+			return null;
+		}
+		final var position = buffer.position();
+		final String value;
+		if (buffer.hasArray()) {
+			value = new String(buffer.array(), buffer.arrayOffset() + position, size, UTF_8);
+		} else {
+			final var bytes = new byte[size];
+			buffer.get(position, bytes);
+			value = new String(bytes, UTF_8);
+		}
+		buffer.position(position + size);
+		return value;
+	}
+
+	public static void put(ByteBuffer buffer, Enum<?> value) {
+		buffer.putInt(value == null ? NULL : value.ordinal());
+	}
+
+	public static <E extends Enum<E>> E getEnum(ByteBuffer buffer, E[] values) {
+		final var ordinal = buffer.getInt();
+		return ordinal == NULL ? null : values[ordinal];
+	}
+
+}
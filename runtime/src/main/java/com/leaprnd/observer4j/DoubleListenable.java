@@ -0,0 +1,11 @@
+package com.leaprnd.observer4j;
+
+/**
+ * A {@link Listenable} of a primitive double that can be read and listened to
+ * without boxing.
+ */
+public interface DoubleListenable extends Listenable<Double> {
+	double listenWith(StrongDoubleSynchronousListener listener);
+	double listenWith(WeakDoubleSynchronousListener listener);
+	double takeSnapshotAsDouble();
+}
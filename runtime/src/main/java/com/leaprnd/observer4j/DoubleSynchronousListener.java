@@ -0,0 +1,17 @@
+package com.leaprnd.observer4j;
+
+import org.jetbrains.annotations.NonBlocking;
+
+/**
+ * A {@link SynchronousListener} of a {@link DoubleListenable} that is notified
+ * without boxing.
+ */
+public sealed interface DoubleSynchronousListener permits StrongDoubleSynchronousListener,WeakDoubleSynchronousListener {
+
+	/**
+	 * @see SynchronousListener#onUpdate(Object, Object)
+	 */
+	@NonBlocking
+	void onUpdate(double before, double after);
+
+}
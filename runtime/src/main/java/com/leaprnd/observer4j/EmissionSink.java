@@ -0,0 +1,315 @@
+package com.leaprnd.observer4j;
+
+import org.slf4j.Logger;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.currentThread;
+import static java.lang.Thread.onSpinWait;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.locks.LockSupport.park;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static java.util.concurrent.locks.LockSupport.unpark;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Gathers the global emissions of many listenables into batches, and passes
+ * each batch to a consumer on a thread of its own. A batch is passed on as soon
+ * as it is full, or once its oldest update has waited for the maximum delay.
+ *
+ * The sink is fed by overriding {@link AbstractListenable#emitUpdateGlobally}
+ * to {@link #accept} the update. When only the latest update of each source is
+ * kept, the updates of a source that are still waiting are coalesced into one,
+ * from the oldest old value to the newest new value.
+ *
+ * Updates are handed to the thread of the sink through a bounded, lock-free
+ * ring buffer, so emitting threads never contend on a lock. When the ring buffer
+ * is full, {@link #accept} waits for the consumer to make space, which slows the
+ * emitting threads down to the pace of the consumer rather than growing the
+ * heap. The lists passed to the consumer are reused and must not be retained.
+ */
+public final class EmissionSink<T> implements AutoCloseable {
+
+	private static final int DEFAULT_MAXIMUM_BATCH_SIZE = 1024;
+	private static final Duration DEFAULT_MAXIMUM_DELAY = Duration.ofMillis(10);
+	private static final int DEFAULT_CAPACITY = 1 << 14;
+	private static final int MAXIMUM_NUMBER_OF_SPINS = 128;
+	private static final long WAIT_FOR_SPACE_NANOSECONDS = 1_000;
+	private static final Logger LOGGER = getLogger(EmissionSink.class);
+
+	private static final VarHandle TAIL;
+	private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+	static {
+		try {
+			TAIL = MethodHandles.lookup().findVarHandle(EmissionSink.class, "tail", long.class);
+		} catch (ReflectiveOperationException exception) {
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+
+	public record Update<T> (Object source, T oldValue, T newValue) {}
+
+	private static final class Buffer<T> {
+
+		private final ArrayList<Update<T>> updates = new ArrayList<>();
+		private final IdentityHashMap<Object, Integer> indexesBySource;
+
+		private Buffer(boolean keepsOnlyLatestUpdates) {
+			indexesBySource = keepsOnlyLatestUpdates ? new IdentityHashMap<>() : null;
+		}
+
+		private void add(Update<T> update) {
+			if (indexesBySource != null) {
+				final var index = indexesBySource.putIfAbsent(update.source(), updates.size());
+				if (index != null) {
+					final var oldUpdate = updates.get(index);
+					updates.set(index, new Update<>(update.source(), oldUpdate.oldValue(), update.newValue()));
+					return;
+				}
+			}
+			updates.add(update);
+		}
+
+		private void clear() {
+			updates.clear();
+			if (indexesBySource != null) {
+				indexesBySource.clear();
+			}
+		}
+
+	}
+
+	private final Consumer<? super List<Update<T>>> consumer;
+	private final int maximumBatchSize;
+	private final long maximumDelayInNanoseconds;
+	private final Update<?>[] ring;
+	private final long[] sequences;
+	private final int mask;
+	private final Buffer<T> buffer;
+	private final Thread thread;
+	private volatile long tail = 0;
+	private long head = 0;
+	private volatile boolean sleeping = false;
+	private volatile boolean closed = false;
+
+	public EmissionSink(Consumer<? super List<Update<T>>> consumer) {
+		this(consumer, DEFAULT_MAXIMUM_BATCH_SIZE, DEFAULT_MAXIMUM_DELAY, false);
+	}
+
+	public EmissionSink(
+		Consumer<? super List<Update<T>>> consumer,
+		int maximumBatchSize,
+		Duration maximumDelay,
+		boolean keepsOnlyLatestUpdates
+	) {
+		this(consumer, maximumBatchSize, maximumDelay, keepsOnlyLatestUpdates, max(DEFAULT_CAPACITY, maximumBatchSize));
+	}
+
+	/**
+	 * @param capacity The number of updates that can wait for the consumer before
+	 *                 {@link #accept} waits for space, rounded up to a power of two
+	 *                 of at least two.
+	 */
+	public EmissionSink(
+		Consumer<? super List<Update<T>>> consumer,
+		int maximumBatchSize,
+		Duration maximumDelay,
+		boolean keepsOnlyLatestUpdates,
+		int capacity
+	) {
+		if (maximumBatchSize < 1) {
+			throw new IllegalArgumentException("Batches must hold at least one update!");
+		}
+		if (maximumDelay.isNegative()) {
+			throw new IllegalArgumentException("The maximum delay cannot be negative!");
+		}
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("The capacity must be between 1 and 2^30!");
+		}
+		this.consumer = consumer;
+		this.maximumBatchSize = maximumBatchSize;
+		maximumDelayInNanoseconds = maximumDelay.toNanos();
+		final var roundedCapacity = capacity <= 2 ? 2 : highestOneBit(capacity - 1) << 1;
+		ring = new Update<?>[roundedCapacity];
+		sequences = new long[roundedCapacity];
+		mask = roundedCapacity - 1;
+		for (var index = 0; index < roundedCapacity; index ++) {
+			sequences[index] = index;
+		}
+		buffer = new Buffer<>(keepsOnlyLatestUpdates);
+		thread = new Thread(this::drain);
+		thread.setDaemon(true);
+		thread.setName("Emission Sink");
+		thread.start();
+	}
+
+	/**
+	 * Hands the update to the consumer, waiting for space if the ring buffer is
+	 * full. Updates accepted concurrently with {@link #close} may not be consumed.
+	 *
+	 * @throws IllegalStateException if this sink has been closed, or if the ring
+	 *                               buffer is full and this is called by the
+	 *                               consumer, which could never make space.
+	 */
+	public void accept(Object source, T oldValue, T newValue) {
+		final var update = new Update<>(source, oldValue, newValue);
+		var spins = 0;
+		while (true) {
+			if (closed) {
+				throw new IllegalStateException("This sink has already been closed!");
+			}
+			if (offer(update)) {
+				return;
+			}
+			if (currentThread() == thread) {
+				throw new IllegalStateException("The consumer cannot feed a full sink!");
+			}
+			if (spins < MAXIMUM_NUMBER_OF_SPINS) {
+				spins ++;
+				onSpinWait();
+			} else {
+				parkNanos(this, WAIT_FOR_SPACE_NANOSECONDS);
+			}
+		}
+	}
+
+	private boolean offer(Update<T> update) {
+		var position = tail;
+		while (true) {
+			final var index = (int) position & mask;
+			final var difference = (long) SEQUENCES.getVolatile(sequences, index) - position;
+			if (difference == 0) {
+				if (TAIL.weakCompareAndSet(this, position, position + 1)) {
+					ring[index] = update;
+					SEQUENCES.setVolatile(sequences, index, position + 1);
+					if (sleeping) {
+						unpark(thread);
+					}
+					return true;
+				}
+				position = tail;
+			} else if (difference < 0) {
+				return false;
+			} else {
+				position = tail;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Update<T> poll() {
+		final var index = (int) head & mask;
+		if ((long) SEQUENCES.getVolatile(sequences, index) != head + 1) {
+			return null;
+		}
+		final var update = (Update<T>) ring[index];
+		ring[index] = null;
+		SEQUENCES.setRelease(sequences, index, head + ring.length);
+		head ++;
+		return update;
+	}
+
+	private boolean isEmpty() {
+		return (long) SEQUENCES.getVolatile(sequences, (int) head & mask) != head + 1;
+	}
+
+	private void drain() {
+		while (gather()) {
+			final var updates = buffer.updates;
+			for (var start = 0; start < updates.size(); start += maximumBatchSize) {
+				final var batch = updates.subList(start, min(start + maximumBatchSize, updates.size()));
+				try {
+					consumer.accept(unmodifiableList(batch));
+				} catch (Throwable throwable) {
+					LOGGER.error("Could not consume {} updates!", batch.size(), throwable);
+				}
+			}
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Waits for an update, then gathers updates until they fill a batch or the
+	 * first one has waited long enough. Returns false once this sink has been
+	 * closed and every update has been drained.
+	 */
+	private boolean gather() {
+		var update = poll();
+		while (update == null) {
+			if (closed) {
+				update = poll();
+				if (update == null) {
+					return false;
+				}
+				break;
+			}
+			idle(-1);
+			update = poll();
+		}
+		buffer.add(update);
+		final var deadline = nanoTime() + maximumDelayInNanoseconds;
+		while (buffer.updates.size() < maximumBatchSize) {
+			update = poll();
+			if (update != null) {
+				buffer.add(update);
+				continue;
+			}
+			if (closed) {
+				break;
+			}
+			final var remaining = deadline - nanoTime();
+			if (remaining <= 0) {
+				break;
+			}
+			idle(remaining);
+		}
+		return true;
+	}
+
+	/**
+	 * Spins briefly, then parks until an update is offered, this sink is closed
+	 * or, unless negative, the given number of nanoseconds has passed.
+	 */
+	private void idle(long nanoseconds) {
+		for (var spins = 0; spins < MAXIMUM_NUMBER_OF_SPINS; spins ++) {
+			if (!isEmpty() || closed) {
+				return;
+			}
+			onSpinWait();
+		}
+		sleeping = true;
+		if (isEmpty() && !closed) {
+			if (nanoseconds < 0) {
+				park(this);
+			} else {
+				parkNanos(this, nanoseconds);
+			}
+		}
+		sleeping = false;
+	}
+
+	/**
+	 * Rejects new updates and waits for the updates that were already accepted to
+	 * be consumed.
+	 */
+	@Override
+	public void close() throws InterruptedException {
+		closed = true;
+		unpark(thread);
+		if (thread != currentThread()) {
+			thread.join();
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.leaprnd.observer4j;
 
+import java.util.Collection;
 import java.util.function.Function;
 
 @SuppressWarnings({ "rawtypes", "unchecked" })
@@ -17,8 +18,13 @@ enum EmptyImmutableMap implements ImmutableMap {
 	}
 
 	@Override
-	public ImmutableMap with(SynchronousListener listener, ReferenceStrength strategy, Object value) {
-		return new NonEmptyImmutableMap(strategy.toEntry(listener, value));
+	public boolean contains(SynchronousListener listener) {
+		return false;
+	}
+
+	@Override
+	public ImmutableMap with(SynchronousListener listener, ReferenceStrength strategy, UpdateFilter filter, Object value) {
+		return new SingletonImmutableMap(strategy.toEntry(listener, filter, value));
 	}
 
 	@Override
@@ -26,11 +32,26 @@ enum EmptyImmutableMap implements ImmutableMap {
 		return this;
 	}
 
+	@Override
+	public ImmutableMap withoutAll(Collection listeners) {
+		return this;
+	}
+
 	@Override
 	public boolean isEmpty() {
 		return true;
 	}
 
+	@Override
+	public int size() {
+		return 0;
+	}
+
+	@Override
+	public ImmutableMapEntry getEntry(int index) {
+		throw new IndexOutOfBoundsException(index);
+	}
+
 	@Override
 	public ImmutableMap clean() {
 		return this;
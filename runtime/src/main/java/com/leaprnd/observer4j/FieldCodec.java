@@ -0,0 +1,29 @@
+package com.leaprnd.observer4j;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link Codec} that can also encode a subset of the fields of a value. The
+ * flag of each field matches the flag used by the forwarder generated for the
+ * same interface.
+ */
+public interface FieldCodec<T> extends Codec<T> {
+
+	int getNumberOfFields();
+
+	int getFlagsOfChangedFields(T oldValue, T newValue);
+
+	int sizeOf(T value, int flagsOfFields);
+
+	/**
+	 * Writes the provided flags followed by the fields they select.
+	 */
+	void encode(T value, int flagsOfFields, ByteBuffer buffer);
+
+	/**
+	 * Reads the fields written by {@link #encode(Object, int, ByteBuffer)} and
+	 * takes every other field from the provided base value.
+	 */
+	T decode(T baseValue, ByteBuffer buffer);
+
+}
@@ -0,0 +1,448 @@
+package com.leaprnd.observer4j;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Method;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.leaprnd.observer4j.ForwardStrategy.DO_NOT_FORWARD;
+import static com.leaprnd.observer4j.ForwardStrategy.FORWARD_AFTER_MARKING_EVERY_FIELD_AS_ACCESSED;
+import static com.leaprnd.observer4j.ForwardStrategy.FORWARD_AFTER_MARKING_FIELD_AS_ACCESSED;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+import static java.lang.reflect.Modifier.isPrivate;
+import static java.lang.reflect.Modifier.isStatic;
+import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ATHROW;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DCMPL;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.FCMPL;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.IF_ICMPNE;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.LCMP;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V17;
+
+/**
+ * Creates forwarders for interfaces that were not annotated with
+ * {@link GenerateSubstitutableForwarder} at compile time. The first time a
+ * factory is requested for an interface, a subclass of
+ * {@link AbstractSubstitutableForwarder} is generated for it, following the
+ * same rules as the {@code AnnotationProcessor}, and defined as a hidden class.
+ * Its methods call the delegate directly, so once compiled they are as fast as
+ * those of a forwarder generated at compile time.
+ *
+ * {@link Forward} annotations are honoured. Annotations of Immutables are only
+ * recognized if they are retained at runtime.
+ *
+ * The methods of a factory map onto the hooks of an {@link AbstractListenable}
+ * whose values are forwarders: {@link #forward} onto {@code forward},
+ * {@link #tryToReplaceDelegate} onto {@code tryToReplace} and
+ * {@code tryToRedelegate}, and {@link #getFlagsOfAccessedFields} onto
+ * {@code getAccessMaskOf}.
+ */
+public final class ForwarderFactory<T> {
+
+	private static final String ABSTRACT_SUBSTITUTABLE_FORWARDER = Type
+		.getInternalName(AbstractSubstitutableForwarder.class);
+	private static final String IMMUTABLES_VALUE_ANNOTATION = "org.immutables.value.Value$";
+	private static final int MAXIMUM_NUMBER_OF_FIELDS = 31;
+
+	private static final ClassValue<ForwarderFactory<?>[]> FACTORIES = new ClassValue<>() {
+		@Override
+		protected ForwarderFactory<?>[] computeValue(Class<?> type) {
+			return new ForwarderFactory<?>[1];
+		}
+	};
+
+	private final Class<?> forwarderClass;
+	private final MethodHandle constructor;
+
+	private ForwarderFactory(Class<?> forwarderClass, MethodHandle constructor) {
+		this.forwarderClass = forwarderClass;
+		this.constructor = constructor;
+	}
+
+	/**
+	 * Returns the factory of the given interface, defining its forwarder in this
+	 * package. The interface must be accessible from this package and visible to
+	 * the class loader of this library; otherwise, use {@link #of(Lookup, Class)}.
+	 */
+	public static <T> ForwarderFactory<T> of(Class<T> type) {
+		return of(lookup(), type);
+	}
+
+	/**
+	 * Returns the factory of the given interface. If it does not exist yet, its
+	 * forwarder is defined in the package of the given lookup, which must have full
+	 * privilege access.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> ForwarderFactory<T> of(Lookup lookup, Class<T> type) {
+		final var factories = FACTORIES.get(type);
+		synchronized (factories) {
+			if (factories[0] == null) {
+				factories[0] = generate(lookup, type);
+			}
+			return (ForwarderFactory<T>) factories[0];
+		}
+	}
+
+	/**
+	 * Returns a new forwarder to the given value. If the value is itself a
+	 * forwarder of this factory, the new forwarder forwards to its delegate instead.
+	 */
+	@SuppressWarnings("unchecked")
+	public T forward(T value) {
+		try {
+			return (T) (Object) constructor.invokeExact((Object) getDelegateOf(value));
+		} catch (RuntimeException | Error exception) {
+			throw exception;
+		} catch (Throwable throwable) {
+			throw new IllegalStateException(throwable);
+		}
+	}
+
+	public boolean tryToReplaceDelegate(T forwarder, T newValue) {
+		return toForwarder(forwarder).tryToReplaceDelegate(getDelegateOf(newValue));
+	}
+
+	public int getFlagsOfAccessedFields(T forwarder) {
+		return toForwarder(forwarder).getFlagsOfAccessedFields();
+	}
+
+	/**
+	 * Returns the delegate of the given value without recording an access if it
+	 * is a forwarder of this factory, or the value itself otherwise.
+	 */
+	public T getDelegateOf(T value) {
+		if (isForwarder(value)) {
+			return toForwarder(value).getDelegateWithoutRecordingAccess();
+		}
+		return value;
+	}
+
+	public boolean isForwarder(Object value) {
+		return value != null && value.getClass() == forwarderClass;
+	}
+
+	@SuppressWarnings("unchecked")
+	private AbstractSubstitutableForwarder<T> toForwarder(T forwarder) {
+		if (!isForwarder(forwarder)) {
+			throw new IllegalArgumentException(forwarder + " is not a forwarder of this factory!");
+		}
+		return (AbstractSubstitutableForwarder<T>) forwarder;
+	}
+
+	private static <T> ForwarderFactory<T> generate(Lookup lookup, Class<T> type) {
+		if (!type.isInterface() || type.isAnnotation()) {
+			throw new IllegalArgumentException(type.getName() + " is not an interface!");
+		}
+		if (!lookup.hasFullPrivilegeAccess()) {
+			throw new IllegalArgumentException("The lookup must have full privilege access!");
+		}
+		final var bytes = generateForwarderOf(lookup.lookupClass().getPackageName(), type, getMembersOf(type));
+		try {
+			final var forwarderLookup = lookup.defineHiddenClass(bytes, true);
+			final var forwarderClass = forwarderLookup.lookupClass();
+			final var constructor = forwarderLookup
+				.findConstructor(forwarderClass, methodType(void.class, type))
+				.asType(methodType(Object.class, Object.class));
+			return new ForwarderFactory<>(forwarderClass, constructor);
+		} catch (IllegalAccessException | NoSuchMethodException exception) {
+			throw new IllegalArgumentException("Could not define a forwarder of " + type.getName() + "!", exception);
+		}
+	}
+
+	private record Member(Method method, ForwardStrategy strategy, int indexOfField) {}
+
+	private static List<Member> getMembersOf(Class<?> type) {
+		final var methods = new LinkedHashMap<String, Method>();
+		collectMethodsOf(type, methods);
+		final var members = new ArrayList<Member>();
+		var index = 0;
+		for (final var method : methods.values()) {
+			final var strategy = chooseStrategyFor(type, method);
+			if (strategy == DO_NOT_FORWARD) {
+				continue;
+			}
+			if (method.getGenericReturnType() instanceof TypeVariable) {
+				throw new IllegalArgumentException(
+					"Methods that return a type variable are not yet supported by forwarders!"
+				);
+			}
+			final var indexOfField = strategy == FORWARD_AFTER_MARKING_FIELD_AS_ACCESSED ? index ++ : -1;
+			members.add(new Member(method, strategy, indexOfField));
+		}
+		if (index > MAXIMUM_NUMBER_OF_FIELDS) {
+			throw new IllegalArgumentException(type.getName() + " has more than 31 fields!");
+		}
+		return members;
+	}
+
+	/**
+	 * Collects the methods of the given interface and of its superinterfaces, so
+	 * that the first method with each signature is the one that is inherited.
+	 */
+	private static void collectMethodsOf(Class<?> type, Map<String, Method> methods) {
+		for (final var method : type.getDeclaredMethods()) {
+			final var modifiers = method.getModifiers();
+			if (isStatic(modifiers) || isPrivate(modifiers) || method.isSynthetic()) {
+				continue;
+			}
+			methods.putIfAbsent(getSignatureOf(method), method);
+		}
+		for (final var superinterface : type.getInterfaces()) {
+			collectMethodsOf(superinterface, methods);
+		}
+	}
+
+	private static String getSignatureOf(Method method) {
+		return method.getName() + Arrays.toString(method.getParameterTypes());
+	}
+
+	private static ForwardStrategy chooseStrategyFor(Class<?> type, Method method) {
+		final var annotatedStrategy = getValueOfForwardAnnotation(type, getSignatureOf(method));
+		if (annotatedStrategy != null) {
+			return annotatedStrategy;
+		}
+		final var name = method.getName();
+		if (name.equals("equals") || name.equals("toString")) {
+			return DO_NOT_FORWARD;
+		}
+		final var hasParameters = method.getParameterCount() > 0;
+		final var isVoid = method.getReturnType() == void.class;
+		final var isDefault = method.isDefault();
+		if (hasParameters || isVoid) {
+			return isDefault ? DO_NOT_FORWARD : FORWARD_AFTER_MARKING_EVERY_FIELD_AS_ACCESSED;
+		}
+		for (final var annotation : method.getAnnotations()) {
+			switch (annotation.annotationType().getName()) {
+				case IMMUTABLES_VALUE_ANNOTATION + "Default",
+					IMMUTABLES_VALUE_ANNOTATION + "Derived",
+					IMMUTABLES_VALUE_ANNOTATION + "Lazy" -> {
+					return FORWARD_AFTER_MARKING_FIELD_AS_ACCESSED;
+				}
+			}
+		}
+		return isDefault ? DO_NOT_FORWARD : FORWARD_AFTER_MARKING_FIELD_AS_ACCESSED;
+	}
+
+	private static ForwardStrategy getValueOfForwardAnnotation(Class<?> type, String signature) {
+		for (final var method : type.getDeclaredMethods()) {
+			if (getSignatureOf(method).equals(signature)) {
+				final var annotation = method.getAnnotation(Forward.class);
+				if (annotation != null) {
+					return annotation.value();
+				}
+			}
+		}
+		for (final var superinterface : type.getInterfaces()) {
+			final var strategy = getValueOfForwardAnnotation(superinterface, signature);
+			if (strategy != null) {
+				return strategy;
+			}
+		}
+		return null;
+	}
+
+	private static byte[] generateForwarderOf(String packageName, Class<?> type, List<Member> members) {
+		final var delegate = Type.getInternalName(type);
+		final var simpleName = type.getSimpleName() + "Forwarder";
+		final var name = packageName.isEmpty() ? simpleName : packageName.replace('.', '/') + "/" + simpleName;
+		final var writer = new ClassWriter(COMPUTE_FRAMES);
+		writer.visit(
+			V17,
+			ACC_PUBLIC | ACC_FINAL | ACC_SUPER,
+			name,
+			null,
+			ABSTRACT_SUBSTITUTABLE_FORWARDER,
+			new String[] {delegate}
+		);
+		final var constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "(L" + delegate + ";)V", null, null);
+		constructor.visitCode();
+		constructor.visitVarInsn(ALOAD, 0);
+		constructor.visitVarInsn(ALOAD, 1);
+		constructor.visitMethodInsn(INVOKESPECIAL, ABSTRACT_SUBSTITUTABLE_FORWARDER, "<init>", "(Ljava/lang/Object;)V", false);
+		constructor.visitInsn(RETURN);
+		constructor.visitMaxs(0, 0);
+		constructor.visitEnd();
+		final var fields = new ArrayList<Member>();
+		for (final var member : members) {
+			final var method = member.method();
+			final var visitor = writer.visitMethod(
+				ACC_PUBLIC | ACC_FINAL,
+				method.getName(),
+				Type.getMethodDescriptor(method),
+				null,
+				getInternalNamesOf(method.getExceptionTypes())
+			);
+			visitor.visitCode();
+			visitor.visitVarInsn(ALOAD, 0);
+			switch (member.strategy()) {
+				case FORWARD_AFTER_MARKING_FIELD_AS_ACCESSED -> {
+					fields.add(member);
+					pushInt(visitor, member.indexOfField());
+					visitor.visitMethodInsn(
+						INVOKEVIRTUAL,
+						ABSTRACT_SUBSTITUTABLE_FORWARDER,
+						"recordAccessToField",
+						"(I)Ljava/lang/Object;",
+						false
+					);
+				}
+				case FORWARD_AFTER_MARKING_EVERY_FIELD_AS_ACCESSED -> visitor.visitMethodInsn(
+					INVOKEVIRTUAL,
+					ABSTRACT_SUBSTITUTABLE_FORWARDER,
+					"recordAccessToEveryField",
+					"()Ljava/lang/Object;",
+					false
+				);
+				default -> visitor.visitMethodInsn(
+					INVOKEVIRTUAL,
+					ABSTRACT_SUBSTITUTABLE_FORWARDER,
+					"getDelegateWithoutRecordingAccess",
+					"()Ljava/lang/Object;",
+					false
+				);
+			}
+			visitor.visitTypeInsn(CHECKCAST, delegate);
+			var slot = 1;
+			for (final var parameterType : Type.getArgumentTypes(method)) {
+				visitor.visitVarInsn(parameterType.getOpcode(ILOAD), slot);
+				slot += parameterType.getSize();
+			}
+			invoke(visitor, delegate, method);
+			visitor.visitInsn(Type.getReturnType(method).getOpcode(IRETURN));
+			visitor.visitMaxs(0, 0);
+			visitor.visitEnd();
+		}
+		final var getNumberOfFields = writer
+			.visitMethod(ACC_PROTECTED | ACC_FINAL, "getNumberOfFields", "()I", null, null);
+		getNumberOfFields.visitCode();
+		pushInt(getNumberOfFields, fields.size());
+		getNumberOfFields.visitInsn(IRETURN);
+		getNumberOfFields.visitMaxs(0, 0);
+		getNumberOfFields.visitEnd();
+		generateAreFieldsEqual(writer, delegate, fields);
+		writer.visitEnd();
+		return writer.toByteArray();
+	}
+
+	private static void generateAreFieldsEqual(ClassWriter writer, String delegate, List<Member> fields) {
+		final var visitor = writer.visitMethod(
+			ACC_PROTECTED | ACC_FINAL,
+			"areFieldsEqual",
+			"(Ljava/lang/Object;Ljava/lang/Object;I)Z",
+			null,
+			null
+		);
+		visitor.visitCode();
+		final var otherwise = new Label();
+		if (!fields.isEmpty()) {
+			final var cases = new Label[fields.size()];
+			for (var index = 0; index < cases.length; index ++) {
+				cases[index] = new Label();
+			}
+			visitor.visitVarInsn(ILOAD, 3);
+			visitor.visitTableSwitchInsn(0, cases.length - 1, otherwise, cases);
+			for (final var field : fields) {
+				final var method = field.method();
+				visitor.visitLabel(cases[field.indexOfField()]);
+				visitor.visitVarInsn(ALOAD, 2);
+				visitor.visitTypeInsn(CHECKCAST, delegate);
+				invoke(visitor, delegate, method);
+				visitor.visitVarInsn(ALOAD, 1);
+				visitor.visitTypeInsn(CHECKCAST, delegate);
+				invoke(visitor, delegate, method);
+				final var returnType = method.getReturnType();
+				if (!returnType.isPrimitive()) {
+					visitor.visitMethodInsn(
+						INVOKESTATIC,
+						"java/util/Objects",
+						"equals",
+						"(Ljava/lang/Object;Ljava/lang/Object;)Z",
+						false
+					);
+					visitor.visitInsn(IRETURN);
+					continue;
+				}
+				final var notEqual = new Label();
+				if (returnType == long.class) {
+					visitor.visitInsn(LCMP);
+					visitor.visitJumpInsn(IFNE, notEqual);
+				} else if (returnType == float.class) {
+					visitor.visitInsn(FCMPL);
+					visitor.visitJumpInsn(IFNE, notEqual);
+				} else if (returnType == double.class) {
+					visitor.visitInsn(DCMPL);
+					visitor.visitJumpInsn(IFNE, notEqual);
+				} else {
+					visitor.visitJumpInsn(IF_ICMPNE, notEqual);
+				}
+				visitor.visitInsn(ICONST_1);
+				visitor.visitInsn(IRETURN);
+				visitor.visitLabel(notEqual);
+				visitor.visitInsn(ICONST_0);
+				visitor.visitInsn(IRETURN);
+			}
+		}
+		visitor.visitLabel(otherwise);
+		visitor.visitTypeInsn(NEW, "java/lang/IndexOutOfBoundsException");
+		visitor.visitInsn(DUP);
+		visitor.visitMethodInsn(INVOKESPECIAL, "java/lang/IndexOutOfBoundsException", "<init>", "()V", false);
+		visitor.visitInsn(ATHROW);
+		visitor.visitMaxs(0, 0);
+		visitor.visitEnd();
+	}
+
+	private static void invoke(MethodVisitor visitor, String delegate, Method method) {
+		visitor.visitMethodInsn(INVOKEINTERFACE, delegate, method.getName(), Type.getMethodDescriptor(method), true);
+	}
+
+	private static void pushInt(MethodVisitor visitor, int value) {
+		if (value <= 5) {
+			visitor.visitInsn(ICONST_0 + value);
+		} else {
+			visitor.visitIntInsn(BIPUSH, value);
+		}
+	}
+
+	private static String[] getInternalNamesOf(Class<?>[] types) {
+		if (types.length == 0) {
+			return null;
+		}
+		final var names = new String[types.length];
+		for (var index = 0; index < types.length; index ++) {
+			names[index] = Type.getInternalName(types[index]);
+		}
+		return names;
+	}
+
+}
@@ -1,12 +1,22 @@
 package com.leaprnd.observer4j;
 
+import java.util.Collection;
 import java.util.function.Function;
 
-sealed interface ImmutableMap<T> permits EmptyImmutableMap,NonEmptyImmutableMap {
+sealed interface ImmutableMap<T> permits EmptyImmutableMap,SingletonImmutableMap,NonEmptyImmutableMap {
 	T get(SynchronousListener<? super T> listener);
-	ImmutableMap<T> with(SynchronousListener<? super T> listener, ReferenceStrength strategy, T value);
+	boolean contains(SynchronousListener<? super T> listener);
+	ImmutableMap<T> with(
+		SynchronousListener<? super T> listener,
+		ReferenceStrength strategy,
+		UpdateFilter<? super T> filter,
+		T value
+	);
 	ImmutableMap<T> without(SynchronousListener<? super T> listener);
+	ImmutableMap<T> withoutAll(Collection<? extends SynchronousListener<? super T>> listeners);
 	boolean isEmpty();
+	int size();
+	ImmutableMapEntry<T> getEntry(int index);
 	ImmutableMap<T> clean();
 	ImmutableMap<T> map(Function<ImmutableMapEntry<T>, T> mapper);
 }
\ No newline at end of file
@@ -5,5 +5,6 @@ sealed interface ImmutableMapEntry<T> permits StrongImmutableMapEntry,WeakImmuta
 	T value();
 	int identityHashCodeOfListener();
 	boolean wasListenerGarbageCollected();
+	boolean isInterestedIn(T oldValue, T newValue);
 	ImmutableMapEntry<T> with(T newValue);
 }
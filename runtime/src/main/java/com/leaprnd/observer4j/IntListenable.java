@@ -0,0 +1,11 @@
+package com.leaprnd.observer4j;
+
+/**
+ * A {@link Listenable} of a primitive int that can be read and listened to
+ * without boxing.
+ */
+public interface IntListenable extends Listenable<Integer> {
+	int listenWith(StrongIntSynchronousListener listener);
+	int listenWith(WeakIntSynchronousListener listener);
+	int takeSnapshotAsInt();
+}
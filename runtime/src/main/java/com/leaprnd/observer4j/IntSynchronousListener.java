@@ -0,0 +1,17 @@
+package com.leaprnd.observer4j;
+
+import org.jetbrains.annotations.NonBlocking;
+
+/**
+ * A {@link SynchronousListener} of a {@link IntListenable} that is notified
+ * without boxing.
+ */
+public sealed interface IntSynchronousListener permits StrongIntSynchronousListener,WeakIntSynchronousListener {
+
+	/**
+	 * @see SynchronousListener#onUpdate(Object, Object)
+	 */
+	@NonBlocking
+	void onUpdate(int before, int after);
+
+}
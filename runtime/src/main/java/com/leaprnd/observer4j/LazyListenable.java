@@ -0,0 +1,214 @@
+package com.leaprnd.observer4j;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import static java.util.Optional.empty;
+
+/**
+ * A listenable derived from other listenables by a function. It only listens to
+ * its inputs while it has listeners of its own; otherwise, it computes its value
+ * from snapshots of its inputs when one is requested. Either way, the function
+ * is only applied when the inputs differ from the last inputs it was applied to.
+ *
+ * Inputs are compared without recording accesses to forwarders, so that the
+ * function is the only one to mark fields as accessed. While listening, a
+ * forwarder is only the same input as itself: a new forwarder must be passed to
+ * the function for the fields it reads to be recorded.
+ */
+final class LazyListenable<R> implements Listenable<R> {
+
+	private record Memo<R> (Object[] inputs, R result) {}
+
+	private final class InputListener implements StrongSynchronousListener<Object> {
+
+		private final int index;
+
+		private InputListener(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public void onUpdate(Object before, Object after) {
+			if (listeners[index] != this) {
+				return;
+			}
+			values.set(index, after);
+			final var cache = LazyListenable.this.cache;
+			if (cache != null) {
+				cache.refresh();
+			}
+		}
+
+	}
+
+	private final class Cache extends AbstractListenable<R> {
+
+		private Cache(R initialValue) {
+			super(initialValue);
+		}
+
+		private void refresh() {
+			updateWithoutDetaching(oldValue -> compute(getValues(), true));
+		}
+
+		@Override
+		protected void onUnobserved() {
+			deactivateIfUnobserved();
+		}
+
+	}
+
+	private final Listenable<?>[] inputs;
+	private final Function<Object[], ? extends R> function;
+	private final AtomicReferenceArray<Object> values;
+	private volatile InputListener[] listeners;
+	private volatile Memo<R> memo;
+	private volatile Cache cache;
+	private volatile boolean active = false;
+
+	LazyListenable(Function<Object[], ? extends R> function, Listenable<?> ... inputs) {
+		this.inputs = inputs;
+		this.function = function;
+		values = new AtomicReferenceArray<>(inputs.length);
+	}
+
+	private R compute(Object[] arguments, boolean listening) {
+		final var oldMemo = memo;
+		if (oldMemo != null && areSameInputs(oldMemo.inputs, arguments, listening)) {
+			return oldMemo.result;
+		}
+		final R result = function.apply(arguments);
+		memo = new Memo<>(arguments, result);
+		return result;
+	}
+
+	private static boolean areSameInputs(Object[] oldInputs, Object[] newInputs, boolean listening) {
+		for (var index = 0; index < newInputs.length; index ++) {
+			if (!isSameInput(oldInputs[index], newInputs[index], listening)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isSameInput(Object oldInput, Object newInput, boolean listening) {
+		if (oldInput == newInput) {
+			return true;
+		}
+		if (oldInput instanceof AbstractSubstitutableForwarder<?> oldForwarder) {
+			if (listening || !(newInput instanceof AbstractSubstitutableForwarder<?> newForwarder)) {
+				return false;
+			}
+			final var oldDelegate = oldForwarder.getDelegateWithoutRecordingAccess();
+			return Objects.equals(oldDelegate, newForwarder.getDelegateWithoutRecordingAccess());
+		}
+		if (newInput instanceof AbstractSubstitutableForwarder<?>) {
+			return false;
+		}
+		return Objects.equals(oldInput, newInput);
+	}
+
+	private Object[] getValues() {
+		final var arguments = new Object[inputs.length];
+		for (var index = 0; index < arguments.length; index ++) {
+			arguments[index] = values.get(index);
+		}
+		return arguments;
+	}
+
+	/**
+	 * Listens to every input with new listeners, so that late notifications sent
+	 * to the listeners of a previous activation are ignored.
+	 */
+	@SuppressWarnings("unchecked")
+	private void activate() {
+		final var newListeners = new LazyListenable.InputListener[inputs.length];
+		for (var index = 0; index < inputs.length; index ++) {
+			newListeners[index] = new InputListener(index);
+			values.set(index, null);
+		}
+		listeners = newListeners;
+		for (var index = 0; index < inputs.length; index ++) {
+			values.compareAndSet(index, null, inputs[index].listenWith(newListeners[index]));
+		}
+		if (cache == null) {
+			cache = new Cache(compute(getValues(), true));
+		} else {
+			cache.refresh();
+		}
+		active = true;
+	}
+
+	private synchronized void deactivateIfUnobserved() {
+		if (active && !cache.isObserved()) {
+			active = false;
+			final var oldListeners = listeners;
+			for (var index = 0; index < inputs.length; index ++) {
+				inputs[index].unlistenWith(oldListeners[index]);
+			}
+		}
+	}
+
+	@Override
+	public R listenWith(Listener<? super R> listener) {
+		return listener.listenTo(this);
+	}
+
+	@Override
+	public synchronized R listenWith(StrongSynchronousListener<? super R> listener) {
+		if (!active) {
+			activate();
+		}
+		return cache.listenWith(listener);
+	}
+
+	@Override
+	public synchronized R listenWith(WeakSynchronousListener<? super R> listener) {
+		if (!active) {
+			activate();
+		}
+		return cache.listenWith(listener);
+	}
+
+	@Override
+	public Optional<? extends R> relistenWith(Listener<? super R> listener) {
+		return listener.relistenTo(this);
+	}
+
+	@Override
+	public Optional<? extends R> relistenWith(SynchronousListener<? super R> listener) {
+		final var cache = this.cache;
+		return cache == null ? empty() : cache.relistenWith(listener);
+	}
+
+	@Override
+	public boolean unlistenWith(Listener<? super R> listener) {
+		return listener.unlistenTo(this);
+	}
+
+	@Override
+	public boolean unlistenWith(SynchronousListener<? super R> listener) {
+		final var cache = this.cache;
+		if (cache == null || !cache.unlistenWith(listener)) {
+			return false;
+		}
+		deactivateIfUnobserved();
+		return true;
+	}
+
+	@Override
+	public R takeSnapshot() {
+		if (active) {
+			return cache.takeSnapshot();
+		}
+		final var arguments = new Object[inputs.length];
+		for (var index = 0; index < arguments.length; index ++) {
+			arguments[index] = inputs[index].takeSnapshot();
+		}
+		return compute(arguments, false);
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.leaprnd.observer4j;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Operators that derive listenables from other listenables without subclassing
+ * {@link AbstractListenableAdapter}. A derived listenable is lazy: it only
+ * listens to its inputs while it is listened to itself, computes its value on
+ * demand otherwise and memoizes the value for the last inputs it saw. Listeners
+ * are not notified when a change to the inputs leaves the derived value
+ * unchanged. Functions must not return null.
+ */
+public final class Listenables {
+
+	private Listenables() {}
+
+	@SuppressWarnings("unchecked")
+	public static <T, R> Listenable<R> map(Listenable<T> listenable, Function<? super T, ? extends R> function) {
+		requireNonNull(function);
+		return new LazyListenable<>(arguments -> function.apply((T) arguments[0]), listenable);
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <A, B, R> Listenable<R> combine(
+		Listenable<A> first,
+		Listenable<B> second,
+		BiFunction<? super A, ? super B, ? extends R> function
+	) {
+		requireNonNull(function);
+		return new LazyListenable<>(arguments -> function.apply((A) arguments[0], (B) arguments[1]), first, second);
+	}
+
+	/**
+	 * Like {@link #map}, but intended for getters. While the derived listenable is
+	 * listened to, the getter is applied to the values handed to its listener, so
+	 * when the provided listenable hands out substitutable forwarders, only the
+	 * selected field is marked as accessed and other fields can change without
+	 * waking the derived listenable.
+	 */
+	public static <T, R> Listenable<R> select(Listenable<T> listenable, Function<? super T, ? extends R> getter) {
+		return map(listenable, getter);
+	}
+
+}
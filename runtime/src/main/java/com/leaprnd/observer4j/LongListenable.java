@@ -0,0 +1,11 @@
+package com.leaprnd.observer4j;
+
+/**
+ * A {@link Listenable} of a primitive long that can be read and listened to
+ * without boxing.
+ */
+public interface LongListenable extends Listenable<Long> {
+	long listenWith(StrongLongSynchronousListener listener);
+	long listenWith(WeakLongSynchronousListener listener);
+	long takeSnapshotAsLong();
+}
@@ -0,0 +1,17 @@
+package com.leaprnd.observer4j;
+
+import org.jetbrains.annotations.NonBlocking;
+
+/**
+ * A {@link SynchronousListener} of a {@link LongListenable} that is notified
+ * without boxing.
+ */
+public sealed interface LongSynchronousListener permits StrongLongSynchronousListener,WeakLongSynchronousListener {
+
+	/**
+	 * @see SynchronousListener#onUpdate(Object, Object)
+	 */
+	@NonBlocking
+	void onUpdate(long before, long after);
+
+}
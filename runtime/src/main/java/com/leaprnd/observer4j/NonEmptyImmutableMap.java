@@ -1,12 +1,15 @@
 package com.leaprnd.observer4j;
 
 import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.function.Function;
 
 import static com.leaprnd.observer4j.EmptyImmutableMap.emptyImmutableMap;
 import static java.lang.System.arraycopy;
 import static java.lang.System.identityHashCode;
 import static java.util.Arrays.copyOf;
+import static java.util.Arrays.sort;
 
 final class NonEmptyImmutableMap<T> implements ImmutableMap<T> {
 
@@ -27,12 +30,22 @@ final class NonEmptyImmutableMap<T> implements ImmutableMap<T> {
 	}
 
 	@Override
-	public NonEmptyImmutableMap<T> with(SynchronousListener<? super T> listener, ReferenceStrength strategy, T value) {
+	public boolean contains(SynchronousListener<? super T> listener) {
+		return binarySearch(listener) >= 0;
+	}
+
+	@Override
+	public NonEmptyImmutableMap<T> with(
+		SynchronousListener<? super T> listener,
+		ReferenceStrength strategy,
+		UpdateFilter<? super T> filter,
+		T value
+	) {
 		int index = -binarySearch(listener) - 1;
 		if (index < 0) {
 			return this;
 		}
-		final var entry = strategy.toEntry(listener, value);
+		final var entry = strategy.toEntry(listener, filter, value);
 		if (entry.listener() != listener) {
 			throw new IllegalArgumentException(
 				"The entry returned by ImmutableReferenceMapEntryFactory.build() cannot have a different listener!"
@@ -56,14 +69,62 @@ final class NonEmptyImmutableMap<T> implements ImmutableMap<T> {
 		if (newEntries == null) {
 			return emptyImmutableMap();
 		}
+		if (newEntries.length == 1) {
+			return new SingletonImmutableMap<>(newEntries[0]);
+		}
 		return new NonEmptyImmutableMap<>(newEntries);
 	}
 
+	@Override
+	public ImmutableMap<T> withoutAll(Collection<? extends SynchronousListener<? super T>> listeners) {
+		final var hashCodesOfListeners = new int[listeners.size()];
+		var numberOfListeners = 0;
+		for (final var listener : listeners) {
+			hashCodesOfListeners[numberOfListeners ++] = identityHashCode(listener);
+		}
+		sort(hashCodesOfListeners);
+		final var oldEntries = entries;
+		ImmutableMapEntry<T>[] newEntries = null;
+		var newLength = 0;
+		for (var index = 0; index < oldEntries.length; index ++) {
+			final var oldEntry = oldEntries[index];
+			if (Arrays.binarySearch(hashCodesOfListeners, oldEntry.identityHashCodeOfListener()) < 0) {
+				if (newEntries != null) {
+					newEntries[newLength] = oldEntry;
+				}
+				newLength ++;
+			} else if (newEntries == null) {
+				newEntries = newArray(oldEntries, oldEntries.length - 1);
+				arraycopy(oldEntries, 0, newEntries, 0, index);
+			}
+		}
+		if (newEntries == null) {
+			return this;
+		}
+		if (newLength == 0) {
+			return emptyImmutableMap();
+		}
+		if (newLength == 1) {
+			return new SingletonImmutableMap<>(newEntries[0]);
+		}
+		return new NonEmptyImmutableMap<>(newLength == newEntries.length ? newEntries : copyOf(newEntries, newLength));
+	}
+
 	@Override
 	public boolean isEmpty() {
 		return false;
 	}
 
+	@Override
+	public int size() {
+		return entries.length;
+	}
+
+	@Override
+	public ImmutableMapEntry<T> getEntry(int index) {
+		return entries[index];
+	}
+
 	@Override
 	public ImmutableMap<T> clean() {
 		final var oldEntries = entries;
@@ -80,6 +141,13 @@ final class NonEmptyImmutableMap<T> implements ImmutableMap<T> {
 		if (newLength == 0) {
 			return emptyImmutableMap();
 		}
+		if (newLength == 1) {
+			for (final var oldEntry : oldEntries) {
+				if (!oldEntry.wasListenerGarbageCollected()) {
+					return new SingletonImmutableMap<>(oldEntry);
+				}
+			}
+		}
 		final var newEntries = newArray(oldEntries, newLength);
 		var index = 0;
 		var entriesToRemove = oldLength - newLength;
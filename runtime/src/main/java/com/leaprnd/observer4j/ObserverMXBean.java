@@ -0,0 +1,37 @@
+package com.leaprnd.observer4j;
+
+import java.util.List;
+
+/**
+ * Statistics about the sampled listenables and refreshables, as of the last
+ * time they were sampled. Only instances constructed while the monitor was
+ * running are sampled, so listenables that predate it are not included. Entries
+ * of the top lists are formatted as
+ * {@code "<class>@<identity hash code>: <count>"}.
+ */
+public interface ObserverMXBean {
+
+	long getTimeOfLastSampleInMilliseconds();
+
+	int getNumberOfSampledListenables();
+	int getNumberOfUninitializedListenables();
+	long getNumberOfStrongListeners();
+	long getNumberOfWeakListeners();
+	int getMaximumNumberOfListeners();
+	long getNumberOfPendingEmissions();
+	int getMaximumNumberOfPendingEmissions();
+	List<String> getListenablesWithTheMostListeners();
+	List<String> getListenablesWithTheMostPendingEmissions();
+
+	int getNumberOfSampledRefreshables();
+	int getNumberOfFrozenRefreshables();
+	long getNumberOfPendingRefreshRequests();
+	List<String> getRefreshablesWithTheMostPendingRequests();
+
+	/**
+	 * Describes every sampled listenable and refreshable, one per line, as of now
+	 * rather than as of the last sample.
+	 */
+	String dumpGraph();
+
+}
@@ -0,0 +1,417 @@
+package com.leaprnd.observer4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.leaprnd.observer4j.AbstractRefreshable.State.FROZEN;
+import static com.leaprnd.observer4j.ReferenceStrength.STRONG_REFERENCE;
+import static com.leaprnd.observer4j.ReferenceStrength.WEAK_REFERENCE;
+import static java.lang.Integer.toHexString;
+import static java.lang.Math.max;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.identityHashCode;
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Exposes an {@link ObserverMXBean} that is refreshed periodically from a
+ * sample of the listenables and refreshables constructed while it runs. The
+ * statistics are computed on a thread of its own, so the cost to listenables is
+ * one volatile read per construction, plus the registration of those that are
+ * sampled.
+ *
+ * Emissions are not timed. The last time a listenable was drained is the last
+ * time it was sampled without pending emissions.
+ */
+public final class ObserverMonitor implements ObserverMXBean, AutoCloseable {
+
+	public static final String OBJECT_NAME = "com.leaprnd.observer4j:type=Observer";
+
+	private static final AtomicBoolean RUNNING = new AtomicBoolean();
+
+	private record Statistics(
+		long timeOfSampleInMilliseconds,
+		int numberOfSampledListenables,
+		int numberOfUninitializedListenables,
+		long numberOfStrongListeners,
+		long numberOfWeakListeners,
+		int maximumNumberOfListeners,
+		long numberOfPendingEmissions,
+		int maximumNumberOfPendingEmissions,
+		List<String> listenablesWithTheMostListeners,
+		List<String> listenablesWithTheMostPendingEmissions,
+		int numberOfSampledRefreshables,
+		int numberOfFrozenRefreshables,
+		long numberOfPendingRefreshRequests,
+		List<String> refreshablesWithTheMostPendingRequests
+	) {}
+
+	private record Entry(String name, long count) {}
+
+	/**
+	 * The state of a sampled listenable, read without waiting for it to be
+	 * initialized. Uninitialized listenables have no listeners.
+	 */
+	private record Observation(boolean initialized, int strong, int weak, int pending) {
+
+		private static Observation of(Listenable<?> listenable) {
+			if (listenable instanceof AbstractListenable<?> abstractListenable) {
+				return new Observation(
+					abstractListenable.isInitialized(),
+					abstractListenable.getNumberOfListeners(STRONG_REFERENCE),
+					abstractListenable.getNumberOfListeners(WEAK_REFERENCE),
+					abstractListenable.getNumberOfPendingEmissions()
+				);
+			}
+			final var primitiveListenable = (AbstractPrimitiveListenable<?>) listenable;
+			return new Observation(
+				primitiveListenable.isInitialized(),
+				primitiveListenable.getNumberOfListeners(STRONG_REFERENCE),
+				primitiveListenable.getNumberOfListeners(WEAK_REFERENCE),
+				primitiveListenable.getNumberOfPendingEmissions()
+			);
+		}
+
+	}
+
+	/**
+	 * Retains the entries with the highest counts.
+	 */
+	private static final class TopEntries {
+
+		private static final Comparator<Entry> BY_COUNT = Comparator.comparingLong(Entry::count);
+
+		private final int capacity;
+		private final PriorityQueue<Entry> entries = new PriorityQueue<>(BY_COUNT);
+
+		private TopEntries(int capacity) {
+			this.capacity = capacity;
+		}
+
+		private void add(Object object, long count) {
+			if (count <= 0) {
+				return;
+			}
+			if (entries.size() < capacity) {
+				entries.add(new Entry(nameOf(object), count));
+			} else if (entries.peek().count() < count) {
+				entries.poll();
+				entries.add(new Entry(nameOf(object), count));
+			}
+		}
+
+		private List<String> toList() {
+			final var sortedEntries = new ArrayList<>(entries);
+			sortedEntries.sort(BY_COUNT.reversed());
+			final var list = new ArrayList<String>(sortedEntries.size());
+			for (final var entry : sortedEntries) {
+				list.add(entry.name() + ": " + entry.count());
+			}
+			return list;
+		}
+
+	}
+
+	private final ObjectName objectName;
+	private final int numberOfTopEntries;
+	private final ScheduledExecutorService scheduler;
+	private Map<WeakReference<Listenable<?>>, Long> timesOfLastDrain = new HashMap<>();
+	private volatile Statistics statistics;
+	private boolean closed = false;
+
+	private ObserverMonitor(ObjectName objectName, int numberOfTopEntries) {
+		this.objectName = objectName;
+		this.numberOfTopEntries = numberOfTopEntries;
+		statistics = sample();
+		scheduler = newSingleThreadScheduledExecutor(runnable -> {
+			final var thread = new Thread(runnable);
+			thread.setDaemon(true);
+			thread.setName("Observer Monitor");
+			return thread;
+		});
+	}
+
+	/**
+	 * Starts sampling one in every given number of the listenables and
+	 * refreshables constructed from now on, and registers a monitor of them with
+	 * the platform MBean server. Only one monitor can run at a time; if this fails,
+	 * sampling is left as it was. Instances constructed before the monitor started
+	 * are never sampled, so a monitor meant to watch long-lived listenables must be
+	 * started before they are constructed, such as when the application starts,
+	 * with a sampling interval that is cheap enough to leave running.
+	 *
+	 * @throws IllegalStateException if a monitor is already running, or if the
+	 *                               monitor could not be registered.
+	 */
+	public static ObserverMonitor start(int samplingInterval, int numberOfTopEntries, Duration period) {
+		if (samplingInterval < 1) {
+			throw new IllegalArgumentException("The sampling interval must be positive!");
+		}
+		if (numberOfTopEntries < 1) {
+			throw new IllegalArgumentException("There must be at least one top entry!");
+		}
+		if (period.isNegative() || period.isZero()) {
+			throw new IllegalArgumentException("The period must be positive!");
+		}
+		final ObjectName objectName;
+		try {
+			objectName = new ObjectName(OBJECT_NAME);
+		} catch (JMException exception) {
+			throw new IllegalStateException(exception);
+		}
+		if (!RUNNING.compareAndSet(false, true)) {
+			throw new IllegalStateException("A monitor is already running!");
+		}
+		var started = false;
+		try {
+			final var monitor = new ObserverMonitor(objectName, numberOfTopEntries);
+			try {
+				getPlatformMBeanServer().registerMBean(monitor, objectName);
+			} catch (JMException exception) {
+				monitor.scheduler.shutdownNow();
+				throw new IllegalStateException("Could not register the monitor!", exception);
+			}
+			ObserverRegistry.setSamplingInterval(samplingInterval);
+			final var nanoseconds = period.toNanos();
+			monitor.scheduler.scheduleAtFixedRate(monitor::refresh, nanoseconds, nanoseconds, NANOSECONDS);
+			started = true;
+			return monitor;
+		} finally {
+			if (!started) {
+				RUNNING.set(false);
+			}
+		}
+	}
+
+	void refresh() {
+		statistics = sample();
+	}
+
+	private synchronized Statistics sample() {
+		final var now = currentTimeMillis();
+		final var newTimesOfLastDrain = new HashMap<WeakReference<Listenable<?>>, Long>();
+		var numberOfSampledListenables = 0;
+		var numberOfUninitializedListenables = 0;
+		var numberOfStrongListeners = 0L;
+		var numberOfWeakListeners = 0L;
+		var maximumNumberOfListeners = 0;
+		var numberOfPendingEmissions = 0L;
+		var maximumNumberOfPendingEmissions = 0;
+		final var listenablesWithTheMostListeners = new TopEntries(numberOfTopEntries);
+		final var listenablesWithTheMostPendingEmissions = new TopEntries(numberOfTopEntries);
+		for (final var reference : ObserverRegistry.getSampledListenables()) {
+			final var listenable = reference.get();
+			if (listenable == null) {
+				continue;
+			}
+			numberOfSampledListenables ++;
+			final var observation = Observation.of(listenable);
+			if (!observation.initialized()) {
+				numberOfUninitializedListenables ++;
+				continue;
+			}
+			final var strong = observation.strong();
+			final var weak = observation.weak();
+			final var pending = observation.pending();
+			numberOfStrongListeners += strong;
+			numberOfWeakListeners += weak;
+			maximumNumberOfListeners = max(maximumNumberOfListeners, strong + weak);
+			numberOfPendingEmissions += pending;
+			maximumNumberOfPendingEmissions = max(maximumNumberOfPendingEmissions, pending);
+			listenablesWithTheMostListeners.add(listenable, strong + weak);
+			listenablesWithTheMostPendingEmissions.add(listenable, pending);
+			final var timeOfLastDrain = pending == 0 ? Long.valueOf(now) : timesOfLastDrain.get(reference);
+			if (timeOfLastDrain != null) {
+				newTimesOfLastDrain.put(reference, timeOfLastDrain);
+			}
+		}
+		timesOfLastDrain = newTimesOfLastDrain;
+		var numberOfSampledRefreshables = 0;
+		var numberOfFrozenRefreshables = 0;
+		var numberOfPendingRefreshRequests = 0L;
+		final var refreshablesWithTheMostPendingRequests = new TopEntries(numberOfTopEntries);
+		for (final var reference : ObserverRegistry.getSampledRefreshables()) {
+			final var refreshable = reference.get();
+			if (refreshable == null) {
+				continue;
+			}
+			numberOfSampledRefreshables ++;
+			if (refreshable.getState() == FROZEN) {
+				numberOfFrozenRefreshables ++;
+			}
+			final var pending = refreshable.getNumberOfPendingRequests();
+			numberOfPendingRefreshRequests += pending;
+			refreshablesWithTheMostPendingRequests.add(refreshable, pending);
+		}
+		return new Statistics(
+			now,
+			numberOfSampledListenables,
+			numberOfUninitializedListenables,
+			numberOfStrongListeners,
+			numberOfWeakListeners,
+			maximumNumberOfListeners,
+			numberOfPendingEmissions,
+			maximumNumberOfPendingEmissions,
+			listenablesWithTheMostListeners.toList(),
+			listenablesWithTheMostPendingEmissions.toList(),
+			numberOfSampledRefreshables,
+			numberOfFrozenRefreshables,
+			numberOfPendingRefreshRequests,
+			refreshablesWithTheMostPendingRequests.toList()
+		);
+	}
+
+	private static String nameOf(Object object) {
+		return object.getClass().getName() + "@" + toHexString(identityHashCode(object));
+	}
+
+	@Override
+	public long getTimeOfLastSampleInMilliseconds() {
+		return statistics.timeOfSampleInMilliseconds();
+	}
+
+	@Override
+	public int getNumberOfSampledListenables() {
+		return statistics.numberOfSampledListenables();
+	}
+
+	@Override
+	public int getNumberOfUninitializedListenables() {
+		return statistics.numberOfUninitializedListenables();
+	}
+
+	@Override
+	public long getNumberOfStrongListeners() {
+		return statistics.numberOfStrongListeners();
+	}
+
+	@Override
+	public long getNumberOfWeakListeners() {
+		return statistics.numberOfWeakListeners();
+	}
+
+	@Override
+	public int getMaximumNumberOfListeners() {
+		return statistics.maximumNumberOfListeners();
+	}
+
+	@Override
+	public long getNumberOfPendingEmissions() {
+		return statistics.numberOfPendingEmissions();
+	}
+
+	@Override
+	public int getMaximumNumberOfPendingEmissions() {
+		return statistics.maximumNumberOfPendingEmissions();
+	}
+
+	@Override
+	public List<String> getListenablesWithTheMostListeners() {
+		return statistics.listenablesWithTheMostListeners();
+	}
+
+	@Override
+	public List<String> getListenablesWithTheMostPendingEmissions() {
+		return statistics.listenablesWithTheMostPendingEmissions();
+	}
+
+	@Override
+	public int getNumberOfSampledRefreshables() {
+		return statistics.numberOfSampledRefreshables();
+	}
+
+	@Override
+	public int getNumberOfFrozenRefreshables() {
+		return statistics.numberOfFrozenRefreshables();
+	}
+
+	@Override
+	public long getNumberOfPendingRefreshRequests() {
+		return statistics.numberOfPendingRefreshRequests();
+	}
+
+	@Override
+	public List<String> getRefreshablesWithTheMostPendingRequests() {
+		return statistics.refreshablesWithTheMostPendingRequests();
+	}
+
+	@Override
+	public synchronized String dumpGraph() {
+		final var dump = new StringBuilder();
+		for (final var reference : ObserverRegistry.getSampledListenables()) {
+			final var listenable = reference.get();
+			if (listenable == null) {
+				continue;
+			}
+			dump.append(nameOf(listenable));
+			final var observation = Observation.of(listenable);
+			if (!observation.initialized()) {
+				dump.append(": uninitialized\n");
+				continue;
+			}
+			final var timeOfLastDrain = timesOfLastDrain.get(reference);
+			dump
+				.append(": strong=")
+				.append(observation.strong())
+				.append(", weak=")
+				.append(observation.weak())
+				.append(", pending=")
+				.append(observation.pending())
+				.append(", lastDrained=")
+				.append(timeOfLastDrain == null ? "unknown" : Instant.ofEpochMilli(timeOfLastDrain))
+				.append('\n');
+		}
+		for (final var reference : ObserverRegistry.getSampledRefreshables()) {
+			final var refreshable = reference.get();
+			if (refreshable == null) {
+				continue;
+			}
+			dump
+				.append(nameOf(refreshable))
+				.append(": state=")
+				.append(refreshable.getState())
+				.append(", pendingRequests=")
+				.append(refreshable.getNumberOfPendingRequests())
+				.append('\n');
+		}
+		return dump.toString();
+	}
+
+	/**
+	 * Stops sampling, forgets the sampled instances and unregisters this monitor,
+	 * unless it has already been closed.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		scheduler.shutdownNow();
+		ObserverRegistry.setSamplingInterval(0);
+		ObserverRegistry.clear();
+		try {
+			getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException exception) {
+			throw new IllegalStateException("Could not unregister the monitor!", exception);
+		} finally {
+			RUNNING.set(false);
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.leaprnd.observer4j;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.concurrent.ConcurrentHashMap.newKeySet;
+import static java.util.concurrent.ThreadLocalRandom.current;
+
+/**
+ * Weak registries of a sample of the listenables and refreshables that were
+ * constructed while sampling was enabled. Instances constructed before then are
+ * never sampled. Sampling is disabled by default, in which case constructors
+ * only read one volatile field.
+ *
+ * Instances are registered at the end of the constructors of their base
+ * classes, before the constructors of their subclasses have run, so the monitor
+ * must only read the state of the base classes through their final methods,
+ * and must tell instances apart by identity rather than by their own
+ * {@code equals} and {@code hashCode}.
+ */
+final class ObserverRegistry {
+
+	private static final int MAXIMUM_SIZE_OF_SAMPLE = 1 << 16;
+
+	/**
+	 * A weak set of sampled instances, which forgets the instances that were
+	 * collected whenever another is added, and stops growing once it reaches the
+	 * maximum size.
+	 */
+	private static final class Sample<T> {
+
+		private final Set<WeakReference<T>> references = newKeySet();
+		private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+
+		private void add(T instance) {
+			prune();
+			if (references.size() < MAXIMUM_SIZE_OF_SAMPLE) {
+				references.add(new WeakReference<>(instance, collected));
+			}
+		}
+
+		private void prune() {
+			for (var reference = collected.poll(); reference != null; reference = collected.poll()) {
+				references.remove(reference);
+			}
+		}
+
+		private List<WeakReference<T>> getReferences() {
+			prune();
+			return new ArrayList<>(references);
+		}
+
+		private void clear() {
+			references.clear();
+		}
+
+	}
+
+	private static volatile int samplingInterval = 0;
+
+	private static final Sample<Listenable<?>> LISTENABLES = new Sample<>();
+	private static final Sample<AbstractRefreshable> REFRESHABLES = new Sample<>();
+
+	private ObserverRegistry() {}
+
+	/**
+	 * Registers one in every given number of the instances constructed from now
+	 * on. Zero disables sampling.
+	 */
+	static void setSamplingInterval(int newSamplingInterval) {
+		if (newSamplingInterval < 0) {
+			throw new IllegalArgumentException("The sampling interval cannot be negative!");
+		}
+		samplingInterval = newSamplingInterval;
+	}
+
+	static void register(AbstractListenable<?> listenable) {
+		if (isSampled()) {
+			LISTENABLES.add(listenable);
+		}
+	}
+
+	static void register(AbstractPrimitiveListenable<?> listenable) {
+		if (isSampled()) {
+			LISTENABLES.add(listenable);
+		}
+	}
+
+	static void register(AbstractRefreshable refreshable) {
+		if (isSampled()) {
+			REFRESHABLES.add(refreshable);
+		}
+	}
+
+	private static boolean isSampled() {
+		final var interval = samplingInterval;
+		return interval == 1 || interval > 1 && current().nextInt(interval) == 0;
+	}
+
+	/**
+	 * Returns weak references to the sampled listenables, which compare by
+	 * identity. Each is either an {@link AbstractListenable} or an
+	 * {@link AbstractPrimitiveListenable}. Some of them may have been cleared
+	 * since.
+	 */
+	static List<WeakReference<Listenable<?>>> getSampledListenables() {
+		return LISTENABLES.getReferences();
+	}
+
+	/**
+	 * Returns weak references to the sampled refreshables. Some of them may have
+	 * been cleared since.
+	 */
+	static List<WeakReference<AbstractRefreshable>> getSampledRefreshables() {
+		return REFRESHABLES.getReferences();
+	}
+
+	static void clear() {
+		LISTENABLES.clear();
+		REFRESHABLES.clear();
+	}
+
+}
@@ -0,0 +1,219 @@
+package com.leaprnd.observer4j;
+
+import org.slf4j.Logger;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.floorMod;
+import static java.lang.Runtime.getRuntime;
+import static java.lang.System.identityHashCode;
+import static java.lang.Thread.currentThread;
+import static java.lang.Thread.onSpinWait;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.locks.LockSupport.park;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static java.util.concurrent.locks.LockSupport.unpark;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * An {@link Executor} with a fixed number of single-threaded partitions, each
+ * draining its own bounded ring buffer. Every task is pinned to a partition by
+ * its identity hash code, so when a listenable uses this executor, all of its
+ * emissions are drained by the same thread and in the order they were
+ * scheduled.
+ *
+ * When the ring buffer of a partition is full, a task scheduled by the thread
+ * of any partition is run immediately, so partitions that schedule tasks on
+ * each other cannot wait on each other forever; any other thread waits for
+ * space. A listenable only emits on one thread at a time, so its emissions are
+ * still drained in order when one of them is run inline.
+ */
+public final class PartitionedExecutor implements Executor, AutoCloseable {
+
+	private static final int DEFAULT_CAPACITY_OF_PARTITION = 1024;
+	private static final int MAXIMUM_NUMBER_OF_SPINS = 128;
+	private static final long WAIT_FOR_SPACE_NANOSECONDS = 1_000;
+
+	private static final VarHandle TAIL;
+	private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+	static {
+		try {
+			TAIL = MethodHandles.lookup().findVarHandle(Partition.class, "tail", long.class);
+		} catch (ReflectiveOperationException exception) {
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+
+	private static final Logger LOGGER = getLogger(PartitionedExecutor.class);
+
+	private final class Partition implements Runnable {
+
+		private final Runnable[] tasks;
+		private final long[] sequences;
+		private final int mask;
+		private final Thread thread;
+		private volatile long tail = 0;
+		private long head = 0;
+		private volatile boolean sleeping = false;
+
+		private Partition(int capacity, int indexOfPartition) {
+			tasks = new Runnable[capacity];
+			sequences = new long[capacity];
+			mask = capacity - 1;
+			for (var index = 0; index < capacity; index ++) {
+				sequences[index] = index;
+			}
+			thread = new Thread(this);
+			thread.setDaemon(true);
+			thread.setName("Listenable Partition " + indexOfPartition);
+		}
+
+		private boolean offer(Runnable task) {
+			var position = tail;
+			while (true) {
+				final var index = (int) position & mask;
+				final var difference = (long) SEQUENCES.getVolatile(sequences, index) - position;
+				if (difference == 0) {
+					if (TAIL.weakCompareAndSet(this, position, position + 1)) {
+						tasks[index] = task;
+						SEQUENCES.setVolatile(sequences, index, position + 1);
+						if (sleeping) {
+							unpark(thread);
+						}
+						return true;
+					}
+					position = tail;
+				} else if (difference < 0) {
+					return false;
+				} else {
+					position = tail;
+				}
+			}
+		}
+
+		private Runnable poll() {
+			final var index = (int) head & mask;
+			if ((long) SEQUENCES.getVolatile(sequences, index) != head + 1) {
+				return null;
+			}
+			final var task = tasks[index];
+			tasks[index] = null;
+			SEQUENCES.setRelease(sequences, index, head + tasks.length);
+			head ++;
+			return task;
+		}
+
+		@Override
+		public void run() {
+			var spins = 0;
+			while (true) {
+				final var task = poll();
+				if (task != null) {
+					spins = 0;
+					try {
+						task.run();
+					} catch (Throwable throwable) {
+						LOGGER.error("Could not run {}!", task, throwable);
+					}
+					continue;
+				}
+				if (closed) {
+					return;
+				}
+				if (spins < MAXIMUM_NUMBER_OF_SPINS) {
+					spins ++;
+					onSpinWait();
+					continue;
+				}
+				sleeping = true;
+				final var index = (int) head & mask;
+				if ((long) SEQUENCES.getVolatile(sequences, index) != head + 1 && !closed) {
+					park(this);
+				}
+				sleeping = false;
+			}
+		}
+
+	}
+
+	private final Partition[] partitions;
+	private volatile boolean closed = false;
+
+	public PartitionedExecutor() {
+		this(getRuntime().availableProcessors(), DEFAULT_CAPACITY_OF_PARTITION);
+	}
+
+	/**
+	 * @param capacityOfPartition The capacity of the ring buffer of each partition,
+	 *                            rounded up to a power of two of at least two,
+	 *                            since a ring of one slot cannot tell a full slot
+	 *                            from a free one.
+	 */
+	public PartitionedExecutor(int numberOfPartitions, int capacityOfPartition) {
+		if (numberOfPartitions < 1) {
+			throw new IllegalArgumentException("There must be at least one partition!");
+		}
+		if (capacityOfPartition < 1 || capacityOfPartition > 1 << 30) {
+			throw new IllegalArgumentException("The capacity of each partition must be between 1 and 2^30!");
+		}
+		final var capacity = capacityOfPartition <= 2 ? 2 : highestOneBit(capacityOfPartition - 1) << 1;
+		partitions = new Partition[numberOfPartitions];
+		for (var index = 0; index < numberOfPartitions; index ++) {
+			partitions[index] = new Partition(capacity, index);
+		}
+		for (final var partition : partitions) {
+			partition.thread.start();
+		}
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		requireNonNull(task);
+		final var partition = partitions[floorMod(identityHashCode(task), partitions.length)];
+		while (true) {
+			if (closed) {
+				throw new RejectedExecutionException("This executor has been closed!");
+			}
+			if (partition.offer(task)) {
+				return;
+			}
+			if (isPartitionThread(currentThread())) {
+				task.run();
+				return;
+			}
+			parkNanos(this, WAIT_FOR_SPACE_NANOSECONDS);
+		}
+	}
+
+	private boolean isPartitionThread(Thread thread) {
+		for (final var partition : partitions) {
+			if (partition.thread == thread) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Rejects new tasks and waits for the tasks that were already scheduled to be
+	 * run. Tasks scheduled concurrently with this method may not be run.
+	 */
+	@Override
+	public void close() throws InterruptedException {
+		closed = true;
+		for (final var partition : partitions) {
+			unpark(partition.thread);
+		}
+		for (final var partition : partitions) {
+			if (partition.thread != currentThread()) {
+				partition.thread.join();
+			}
+		}
+	}
+
+}
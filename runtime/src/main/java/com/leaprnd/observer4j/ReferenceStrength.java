@@ -5,10 +5,10 @@ enum ReferenceStrength {
 	STRONG_REFERENCE,
 	WEAK_REFERENCE;
 
-	<T> ImmutableMapEntry<T> toEntry(SynchronousListener<? super T> listener, T value) {
+	<T> ImmutableMapEntry<T> toEntry(SynchronousListener<? super T> listener, UpdateFilter<? super T> filter, T value) {
 		return switch (this) {
-			case STRONG_REFERENCE -> new StrongImmutableMapEntry<>(listener, value);
-			case WEAK_REFERENCE -> new WeakImmutableMapEntry<>(listener, value);
+			case STRONG_REFERENCE -> new StrongImmutableMapEntry<>(listener, filter, value);
+			case WEAK_REFERENCE -> new WeakImmutableMapEntry<>(listener, filter, value);
 		};
 	}
 
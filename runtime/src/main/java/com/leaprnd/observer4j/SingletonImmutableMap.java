@@ -0,0 +1,92 @@
+package com.leaprnd.observer4j;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+import static com.leaprnd.observer4j.EmptyImmutableMap.emptyImmutableMap;
+import static java.lang.System.identityHashCode;
+
+record SingletonImmutableMap<T> (ImmutableMapEntry<T> entry) implements ImmutableMap<T> {
+
+	@Override
+	public T get(SynchronousListener<? super T> listener) {
+		return contains(listener) ? entry.value() : null;
+	}
+
+	@Override
+	public boolean contains(SynchronousListener<? super T> listener) {
+		return entry.identityHashCodeOfListener() == identityHashCode(listener);
+	}
+
+	@Override
+	public ImmutableMap<T> with(
+		SynchronousListener<? super T> listener,
+		ReferenceStrength strategy,
+		UpdateFilter<? super T> filter,
+		T value
+	) {
+		final var hashCodeOfListener = identityHashCode(listener);
+		final var comparison = entry.identityHashCodeOfListener() - hashCodeOfListener;
+		if (comparison == 0) {
+			return this;
+		}
+		final var newEntry = strategy.toEntry(listener, filter, value);
+		if (comparison < 0) {
+			return new NonEmptyImmutableMap<>(entry, newEntry);
+		} else {
+			return new NonEmptyImmutableMap<>(newEntry, entry);
+		}
+	}
+
+	@Override
+	public ImmutableMap<T> without(SynchronousListener<? super T> listener) {
+		return contains(listener) ? emptyImmutableMap() : this;
+	}
+
+	@Override
+	public ImmutableMap<T> withoutAll(Collection<? extends SynchronousListener<? super T>> listeners) {
+		for (final var listener : listeners) {
+			if (contains(listener)) {
+				return emptyImmutableMap();
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return 1;
+	}
+
+	@Override
+	public ImmutableMapEntry<T> getEntry(int index) {
+		if (index != 0) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		return entry;
+	}
+
+	@Override
+	public ImmutableMap<T> clean() {
+		return entry.wasListenerGarbageCollected() ? emptyImmutableMap() : this;
+	}
+
+	@Override
+	public ImmutableMap<T> map(Function<ImmutableMapEntry<T>, T> mapper) {
+		if (entry.listener() == null) {
+			return this;
+		}
+		final var oldValue = entry.value();
+		final var newValue = mapper.apply(entry);
+		if (oldValue == newValue) {
+			return this;
+		}
+		return new SingletonImmutableMap<>(entry.with(newValue));
+	}
+
+}
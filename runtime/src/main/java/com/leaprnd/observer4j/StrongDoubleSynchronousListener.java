@@ -0,0 +1,11 @@
+package com.leaprnd.observer4j;
+
+/**
+ * @see StrongSynchronousListener
+ */
+public non-sealed interface StrongDoubleSynchronousListener extends StrongSynchronousListener<Double>, DoubleSynchronousListener {
+	@Override
+	default void onUpdate(Double before, Double after) {
+		onUpdate(before.doubleValue(), after.doubleValue());
+	}
+}
@@ -2,7 +2,11 @@ package com.leaprnd.observer4j;
 
 import static java.lang.System.identityHashCode;
 
-record StrongImmutableMapEntry<T> (SynchronousListener<? super T> listener, T value) implements ImmutableMapEntry<T> {
+record StrongImmutableMapEntry<T> (
+	SynchronousListener<? super T> listener,
+	UpdateFilter<? super T> filter,
+	T value
+) implements ImmutableMapEntry<T> {
 
 	@Override
 	public int identityHashCodeOfListener() {
@@ -14,9 +18,14 @@ record StrongImmutableMapEntry<T> (SynchronousListener<? super T> listener, T va
 		return false;
 	}
 
+	@Override
+	public boolean isInterestedIn(T oldValue, T newValue) {
+		return filter == null || filter.isRelevant(oldValue, newValue);
+	}
+
 	@Override
 	public ImmutableMapEntry<T> with(T newValue) {
-		return new StrongImmutableMapEntry<>(listener, newValue);
+		return new StrongImmutableMapEntry<>(listener, filter, newValue);
 	}
 
 }
@@ -0,0 +1,11 @@
+package com.leaprnd.observer4j;
+
+/**
+ * @see StrongSynchronousListener
+ */
+public non-sealed interface StrongIntSynchronousListener extends StrongSynchronousListener<Integer>, IntSynchronousListener {
+	@Override
+	default void onUpdate(Integer before, Integer after) {
+		onUpdate(before.intValue(), after.intValue());
+	}
+}
@@ -0,0 +1,11 @@
+package com.leaprnd.observer4j;
+
+/**
+ * @see StrongSynchronousListener
+ */
+public non-sealed interface StrongLongSynchronousListener extends StrongSynchronousListener<Long>, LongSynchronousListener {
+	@Override
+	default void onUpdate(Long before, Long after) {
+		onUpdate(before.longValue(), after.longValue());
+	}
+}
@@ -0,0 +1,99 @@
+package com.leaprnd.observer4j;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Records every listener added through it, so that closing it removes them
+ * all. A listener that was already listening is left as it is, and is not
+ * removed when the scope is closed. The listeners of each {@link AbstractListenable} are removed together,
+ * in one state transition; those of any other listenable are removed one by
+ * one. The scope is not locked while a listener is being added, since adding
+ * one may block until the listenable has been initialized.
+ */
+public final class SubscriptionScope implements AutoCloseable {
+
+	private Map<Listenable<?>, List<SynchronousListener<?>>> listenersByListenable = new IdentityHashMap<>();
+
+	public <T> T listenTo(Listenable<T> listenable, StrongSynchronousListener<? super T> listener) {
+		checkNotClosed();
+		final Optional<? extends T> existingValue = listenable.relistenWith(listener);
+		if (existingValue.isPresent()) {
+			return existingValue.get();
+		}
+		final T value = listenable.listenWith(listener);
+		record(listenable, listener);
+		return value;
+	}
+
+	/**
+	 * Like {@link #listenTo(Listenable, StrongSynchronousListener)}. The scope
+	 * records the listener strongly until it is closed, so the listener is not
+	 * garbage collected, and not removed by being collected, while the scope is
+	 * open.
+	 */
+	public <T> T listenTo(Listenable<T> listenable, WeakSynchronousListener<? super T> listener) {
+		checkNotClosed();
+		final Optional<? extends T> existingValue = listenable.relistenWith(listener);
+		if (existingValue.isPresent()) {
+			return existingValue.get();
+		}
+		final T value = listenable.listenWith(listener);
+		record(listenable, listener);
+		return value;
+	}
+
+	private synchronized void checkNotClosed() {
+		if (listenersByListenable == null) {
+			throw new IllegalStateException("This scope has already been closed!");
+		}
+	}
+
+	/**
+	 * Records a listener once it has been added, so that a listener that could not
+	 * be added is never recorded. If this scope was closed while the listener was
+	 * being added, the listener is removed again instead.
+	 */
+	private void record(Listenable<?> listenable, SynchronousListener<?> listener) {
+		synchronized (this) {
+			if (listenersByListenable != null) {
+				listenersByListenable.computeIfAbsent(listenable, key -> new ArrayList<>()).add(listener);
+				return;
+			}
+		}
+		unlistenWithAll(listenable, List.of(listener));
+		throw new IllegalStateException("This scope was closed while listening!");
+	}
+
+	public synchronized boolean isClosed() {
+		return listenersByListenable == null;
+	}
+
+	@Override
+	public void close() {
+		final Map<Listenable<?>, List<SynchronousListener<?>>> oldListenersByListenable;
+		synchronized (this) {
+			oldListenersByListenable = listenersByListenable;
+			listenersByListenable = null;
+		}
+		if (oldListenersByListenable == null) {
+			return;
+		}
+		oldListenersByListenable.forEach(SubscriptionScope::unlistenWithAll);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static void unlistenWithAll(Listenable listenable, List<SynchronousListener<?>> listeners) {
+		if (listenable instanceof AbstractListenable abstractListenable) {
+			abstractListenable.unlistenWithAll(listeners);
+		} else {
+			for (final var listener : listeners) {
+				listenable.unlistenWith(listener);
+			}
+		}
+	}
+
+}
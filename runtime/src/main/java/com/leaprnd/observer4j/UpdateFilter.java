@@ -0,0 +1,30 @@
+package com.leaprnd.observer4j;
+
+/**
+ * A cheap test that an {@link AbstractListenable} evaluates before it notifies
+ * a listener of an update. When the test fails, the listener is skipped
+ * entirely: no forwarder is created for it and it keeps the forwarder it was
+ * last notified with.
+ */
+@FunctionalInterface
+public interface UpdateFilter<T> {
+
+	/**
+	 * This method is called while the update is being applied, with the values
+	 * held by the listenable rather than detached copies. Implementations must
+	 * therefore not block, modify or retain them.
+	 */
+	boolean isRelevant(T oldValue, T newValue);
+
+	/**
+	 * @param flagsOfFields The flags of the fields, as used by the provided codec,
+	 *                      that the listener depends on.
+	 */
+	static <T> UpdateFilter<T> onlyFields(FieldCodec<? super T> codec, int flagsOfFields) {
+		if (flagsOfFields == 0) {
+			throw new IllegalArgumentException("At least one field must be selected!");
+		}
+		return (oldValue, newValue) -> (codec.getFlagsOfChangedFields(oldValue, newValue) & flagsOfFields) != 0;
+	}
+
+}
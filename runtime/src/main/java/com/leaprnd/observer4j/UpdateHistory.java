@@ -0,0 +1,70 @@
+package com.leaprnd.observer4j;
+
+import org.slf4j.Logger;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * A ring of the last updates of an {@link AbstractListenable}, each keyed by a
+ * version. The first update has version 1, and every update after it has the
+ * next version. A listenable retains its history by returning one from
+ * {@link AbstractListenable#getHistory()}; an instance must not be shared
+ * between listenables.
+ */
+public final class UpdateHistory<T> {
+
+	private static final Logger LOGGER = getLogger(UpdateHistory.class);
+
+	private final Object[] oldValues;
+	private final Object[] newValues;
+	private long version = 0;
+
+	public UpdateHistory(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The history must retain at least one update!");
+		}
+		oldValues = new Object[capacity];
+		newValues = new Object[capacity];
+	}
+
+	/**
+	 * Returns the version of the last update that was emitted. When called by a
+	 * listener while it is being notified of a live update, that is the version of
+	 * the update it is being notified of.
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
+
+	synchronized void append(T oldValue, T newValue) {
+		final var index = (int) (version % oldValues.length);
+		oldValues[index] = oldValue;
+		newValues[index] = newValue;
+		version ++;
+	}
+
+	/**
+	 * Notifies the listener of every retained update after the given version.
+	 */
+	@SuppressWarnings("unchecked")
+	synchronized void replay(SynchronousListener<? super T> listener, long fromVersion) {
+		if (fromVersion < 0) {
+			throw new IllegalArgumentException("Versions cannot be negative!");
+		}
+		if (fromVersion > version) {
+			throw new IllegalArgumentException("Version " + fromVersion + " has not been reached yet!");
+		}
+		if (fromVersion < version - oldValues.length) {
+			throw new IllegalArgumentException("The updates after version " + fromVersion + " are no longer retained!");
+		}
+		for (var each = fromVersion; each < version; each ++) {
+			final var index = (int) (each % oldValues.length);
+			try {
+				listener.onUpdate((T) oldValues[index], (T) newValues[index]);
+			} catch (Throwable throwable) {
+				LOGGER.error("Could not replay update {} to {}!", each + 1, listener, throwable);
+			}
+		}
+	}
+
+}
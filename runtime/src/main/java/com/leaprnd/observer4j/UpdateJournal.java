@@ -0,0 +1,465 @@
+package com.leaprnd.observer4j;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.list;
+import static java.nio.file.Files.move;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * An append-only journal of the latest value of many keyed listenables. Updates
+ * are appended to memory-mapped segments of a fixed size. Every time enough
+ * segments have been filled, the sealed segments are compacted into a snapshot
+ * that only retains the latest value of each key.
+ *
+ * The journal is fed by overriding {@link AbstractListenable#emitUpdateGlobally}
+ * to {@link #append} the new value. After a restart, {@link #initializeAll}
+ * initializes each listenable from the newest snapshot and the segments written
+ * after it.
+ *
+ * Compactions, and the forcing of sealed segments to disk, run on the provided
+ * executor, which defaults to a thread shared by every journal, so appending
+ * never waits for a snapshot to be written or a segment to be synced. When a
+ * journal is opened, the last segment is resumed rather than a new one being
+ * mapped. Java cannot unmap buffers explicitly, so the mapping of a segment is
+ * only released once its buffer has been garbage collected; the journal drops
+ * its buffer as soon as the sealed segment has been forced or the journal is
+ * closed.
+ */
+public final class UpdateJournal<K, T> implements AutoCloseable {
+
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final String SNAPSHOT_PREFIX = "snapshot-";
+	private static final String SNAPSHOT_SUFFIX = ".bin";
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+	private static final int HEADER_SIZE = 2 * Integer.BYTES;
+	private static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+	private static final int DEFAULT_SEGMENTS_PER_SNAPSHOT = 4;
+	private static final int MINIMUM_WRITE_BUFFER_SIZE = 64 << 10;
+	private static final Logger LOGGER = getLogger(UpdateJournal.class);
+
+	private static final Executor COMPACTION_EXECUTOR = newSingleThreadExecutor(runnable -> {
+		final var thread = new Thread(runnable);
+		thread.setDaemon(true);
+		thread.setName("Journal Compactor");
+		return thread;
+	});
+
+	private final Path directory;
+	private final Codec<K> keyCodec;
+	private final Codec<T> valueCodec;
+	private final int segmentSize;
+	private final int segmentsPerSnapshot;
+	private final Executor executor;
+	/**
+	 * Guards the snapshots and sealed segments. It is never held while acquiring
+	 * the monitor of this journal, which guards the active segment.
+	 */
+	private final Object compactionMonitor = new Object();
+	private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+	private long sequenceOfActiveSegment;
+	private MappedByteBuffer activeSegment;
+	private int segmentsSinceSnapshot;
+	private boolean closed = false;
+
+	public UpdateJournal(Path directory, Codec<K> keyCodec, Codec<T> valueCodec) throws IOException {
+		this(directory, keyCodec, valueCodec, DEFAULT_SEGMENT_SIZE, DEFAULT_SEGMENTS_PER_SNAPSHOT, COMPACTION_EXECUTOR);
+	}
+
+	public UpdateJournal(
+		Path directory,
+		Codec<K> keyCodec,
+		Codec<T> valueCodec,
+		int segmentSize,
+		int segmentsPerSnapshot,
+		Executor executor
+	) throws IOException {
+		if (segmentSize <= HEADER_SIZE) {
+			throw new IllegalArgumentException("Segments must be larger than " + HEADER_SIZE + " bytes!");
+		}
+		if (segmentsPerSnapshot < 1) {
+			throw new IllegalArgumentException("There must be at least one segment per snapshot!");
+		}
+		this.directory = createDirectories(directory);
+		this.keyCodec = keyCodec;
+		this.valueCodec = valueCodec;
+		this.segmentSize = segmentSize;
+		this.segmentsPerSnapshot = segmentsPerSnapshot;
+		this.executor = executor;
+		final var newestSnapshot = getSequenceOfNewestSnapshot();
+		final var segments = getSequencesOfSegmentsAfter(newestSnapshot).toArray();
+		if (segments.length == 0) {
+			segmentsSinceSnapshot = 0;
+			sequenceOfActiveSegment = newestSnapshot + 1;
+			activeSegment = mapSegment(sequenceOfActiveSegment, 0);
+			return;
+		}
+		final var lastSegment = segments[segments.length - 1];
+		final var endOfLastSegment = getEndOfRecordsIn(lastSegment);
+		if (endOfLastSegment > segmentSize) {
+			segmentsSinceSnapshot = segments.length;
+			sequenceOfActiveSegment = lastSegment + 1;
+			activeSegment = mapSegment(sequenceOfActiveSegment, 0);
+		} else {
+			segmentsSinceSnapshot = segments.length - 1;
+			sequenceOfActiveSegment = lastSegment;
+			activeSegment = mapSegment(sequenceOfActiveSegment, endOfLastSegment);
+		}
+	}
+
+	public void append(K key, T value) {
+		MappedByteBuffer sealedSegment = null;
+		var sequenceToCompact = -1L;
+		try {
+			synchronized (this) {
+				if (closed) {
+					throw new IllegalStateException("This journal has already been closed!");
+				}
+				final var sizeOfKey = keyCodec.sizeOf(key);
+				final var sizeOfRecord = HEADER_SIZE + sizeOfKey + valueCodec.sizeOf(value);
+				if (sizeOfRecord > segmentSize) {
+					throw new IllegalArgumentException("An update of " + sizeOfRecord + " bytes cannot fit in a segment!");
+				}
+				if (activeSegment.remaining() < sizeOfRecord) {
+					sealedSegment = rotate();
+					if (segmentsSinceSnapshot >= segmentsPerSnapshot && compactionScheduled.compareAndSet(false, true)) {
+						segmentsSinceSnapshot = 0;
+						sequenceToCompact = sequenceOfActiveSegment - 1;
+					}
+				}
+				write(key, sizeOfKey, value, sizeOfRecord);
+			}
+		} finally {
+			if (sealedSegment != null) {
+				scheduleForce(sealedSegment);
+			}
+			if (sequenceToCompact >= 0) {
+				scheduleCompactionUpTo(sequenceToCompact);
+			}
+		}
+	}
+
+	private void write(K key, int sizeOfKey, T value, int sizeOfRecord) {
+		final var segment = activeSegment;
+		final var start = segment.position();
+		try {
+			segment.position(start + HEADER_SIZE);
+			keyCodec.encode(key, segment);
+			valueCodec.encode(value, segment);
+			if (segment.position() != start + sizeOfRecord) {
+				throw new IllegalStateException("A codec wrote a different number of bytes than it said it would!");
+			}
+		} catch (RuntimeException exception) {
+			segment.position(start);
+			throw exception;
+		}
+		segment.putInt(start + Integer.BYTES, sizeOfKey);
+		segment.putInt(start, sizeOfRecord);
+	}
+
+	public synchronized void flush() {
+		if (!closed) {
+			activeSegment.force();
+		}
+	}
+
+	/**
+	 * Seals the active segment and compacts every sealed segment into a new
+	 * snapshot before returning.
+	 */
+	public void snapshot() throws IOException {
+		final long lastSequence;
+		MappedByteBuffer sealedSegment = null;
+		synchronized (this) {
+			if (closed) {
+				throw new IllegalStateException("This journal has already been closed!");
+			}
+			if (activeSegment.position() > 0) {
+				sealedSegment = rotate();
+			}
+			segmentsSinceSnapshot = 0;
+			lastSequence = sequenceOfActiveSegment - 1;
+		}
+		if (sealedSegment != null) {
+			sealedSegment.force();
+		}
+		synchronized (compactionMonitor) {
+			compactUpTo(lastSequence);
+		}
+	}
+
+	/**
+	 * Seals the active segment and maps the next one. Returns the buffer of the
+	 * sealed segment, which the caller must force once it has released the monitor
+	 * of this journal, so that appending never waits for the disk.
+	 */
+	private MappedByteBuffer rotate() {
+		final var sealedSegment = activeSegment;
+		activeSegment = mapSegment(++ sequenceOfActiveSegment, 0);
+		segmentsSinceSnapshot ++;
+		return sealedSegment;
+	}
+
+	/**
+	 * Forces the sealed segment to disk on the executor, or on the calling thread
+	 * if the executor rejects it.
+	 */
+	private void scheduleForce(MappedByteBuffer sealedSegment) {
+		try {
+			executor.execute(() -> force(sealedSegment));
+		} catch (RejectedExecutionException exception) {
+			force(sealedSegment);
+		}
+	}
+
+	private void force(MappedByteBuffer sealedSegment) {
+		try {
+			sealedSegment.force();
+		} catch (Throwable throwable) {
+			LOGGER.error("Could not force a sealed segment of {}!", directory, throwable);
+		}
+	}
+
+	/**
+	 * Compacts the segments up to the given one on the executor. This must not be
+	 * called while holding the monitor of this journal, since the executor may
+	 * compact on the calling thread.
+	 */
+	private void scheduleCompactionUpTo(long lastSequence) {
+		try {
+			executor.execute(() -> {
+				try {
+					synchronized (compactionMonitor) {
+						compactUpTo(lastSequence);
+					}
+				} catch (Throwable throwable) {
+					LOGGER.error("Could not compact {}!", directory, throwable);
+				} finally {
+					compactionScheduled.set(false);
+				}
+			});
+		} catch (RejectedExecutionException exception) {
+			compactionScheduled.set(false);
+			throw exception;
+		}
+	}
+
+	/**
+	 * Maps the given segment, positioned at the given offset. Anything after it is
+	 * truncated first, so the part of a record torn by a crash is zeroed.
+	 */
+	private MappedByteBuffer mapSegment(long sequence, int position) {
+		try (final var channel = FileChannel.open(getPathOfSegment(sequence), CREATE, READ, WRITE)) {
+			channel.truncate(position);
+			return channel.map(READ_WRITE, 0, segmentSize).position(position);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	private int getEndOfRecordsIn(long sequence) throws IOException {
+		try (final var channel = FileChannel.open(getPathOfSegment(sequence), READ)) {
+			return getEndOfRecords(channel.map(READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	private static int getEndOfRecords(ByteBuffer buffer) {
+		var position = 0;
+		while (buffer.limit() - position >= HEADER_SIZE) {
+			final var sizeOfRecord = buffer.getInt(position);
+			if (sizeOfRecord < HEADER_SIZE || sizeOfRecord > buffer.limit() - position) {
+				break;
+			}
+			position += sizeOfRecord;
+		}
+		return position;
+	}
+
+	private void compactUpTo(long lastSequence) throws IOException {
+		final var newestSnapshot = getSequenceOfNewestSnapshot();
+		if (newestSnapshot >= lastSequence) {
+			return;
+		}
+		final var latest = readLatestUpTo(newestSnapshot, lastSequence);
+		final var temporary = directory.resolve(format("%s%019d%s", SNAPSHOT_PREFIX, lastSequence, TEMPORARY_SUFFIX));
+		try (final var channel = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING)) {
+			var buffer = ByteBuffer.allocate(MINIMUM_WRITE_BUFFER_SIZE);
+			for (final var entry : latest.entrySet()) {
+				final var key = entry.getKey();
+				final var value = entry.getValue();
+				final var sizeOfKey = keyCodec.sizeOf(key);
+				final var sizeOfRecord = HEADER_SIZE + sizeOfKey + value.remaining();
+				if (buffer.remaining() < sizeOfRecord) {
+					writeFully(channel, buffer);
+					if (buffer.capacity() < sizeOfRecord) {
+						buffer = ByteBuffer.allocate(sizeOfRecord);
+					}
+				}
+				buffer.putInt(sizeOfRecord);
+				buffer.putInt(sizeOfKey);
+				keyCodec.encode(key, buffer);
+				buffer.put(value);
+			}
+			writeFully(channel, buffer);
+			channel.force(true);
+		}
+		move(temporary, getPathOfSnapshot(lastSequence), ATOMIC_MOVE, REPLACE_EXISTING);
+		if (newestSnapshot >= 0) {
+			deleteIfExists(getPathOfSnapshot(newestSnapshot));
+		}
+		for (final var sequence : getSequencesOfSegmentsAfter(newestSnapshot).toArray()) {
+			if (sequence <= lastSequence) {
+				deleteIfExists(getPathOfSegment(sequence));
+			}
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Passes the latest journaled value of every key to the provided consumer,
+	 * including those in the resumed segment. This is meant to be invoked once at
+	 * startup, before any updates are appended.
+	 *
+	 * @return The number of keys that were recovered.
+	 */
+	public int recover(BiConsumer<? super K, ? super T> consumer) throws IOException {
+		final long lastSequence;
+		synchronized (this) {
+			lastSequence = sequenceOfActiveSegment;
+		}
+		final Map<K, ByteBuffer> latest;
+		synchronized (compactionMonitor) {
+			latest = readLatestUpTo(getSequenceOfNewestSnapshot(), lastSequence);
+		}
+		for (final var entry : latest.entrySet()) {
+			consumer.accept(entry.getKey(), valueCodec.decode(entry.getValue()));
+		}
+		return latest.size();
+	}
+
+	/**
+	 * Invokes {@link AbstractListenable#initialize(Object)} with the latest
+	 * journaled value of every key for which the provided resolver returns a
+	 * listenable.
+	 *
+	 * @return The number of listenables that were initialized.
+	 */
+	public int initializeAll(Function<? super K, ? extends AbstractListenable<? super T>> resolver) throws IOException {
+		final var counter = new int[1];
+		recover((key, value) -> {
+			final var listenable = resolver.apply(key);
+			if (listenable != null) {
+				listenable.initialize(value);
+				counter[0] ++;
+			}
+		});
+		return counter[0];
+	}
+
+	private Map<K, ByteBuffer> readLatestUpTo(long snapshot, long lastSequence) throws IOException {
+		final var latest = new LinkedHashMap<K, ByteBuffer>();
+		if (snapshot >= 0) {
+			readInto(getPathOfSnapshot(snapshot), latest);
+		}
+		for (final var sequence : getSequencesOfSegmentsAfter(snapshot).toArray()) {
+			if (sequence <= lastSequence) {
+				readInto(getPathOfSegment(sequence), latest);
+			}
+		}
+		return latest;
+	}
+
+	private void readInto(Path path, Map<K, ByteBuffer> latest) throws IOException {
+		final ByteBuffer buffer;
+		try (final var channel = FileChannel.open(path, READ)) {
+			buffer = channel.map(READ_ONLY, 0, channel.size());
+		}
+		while (buffer.remaining() >= HEADER_SIZE) {
+			final var start = buffer.position();
+			final var sizeOfRecord = buffer.getInt(start);
+			if (sizeOfRecord < HEADER_SIZE || sizeOfRecord > buffer.remaining()) {
+				break;
+			}
+			final var sizeOfKey = buffer.getInt(start + Integer.BYTES);
+			final var startOfValue = start + HEADER_SIZE + sizeOfKey;
+			final var key = keyCodec.decode(buffer.slice(start + HEADER_SIZE, sizeOfKey));
+			latest.remove(key);
+			latest.put(key, buffer.slice(startOfValue, start + sizeOfRecord - startOfValue));
+			buffer.position(start + sizeOfRecord);
+		}
+	}
+
+	private long getSequenceOfNewestSnapshot() throws IOException {
+		return getSequencesOf(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).max().orElse(-1);
+	}
+
+	private LongStream getSequencesOfSegmentsAfter(long sequence) throws IOException {
+		return getSequencesOf(SEGMENT_PREFIX, SEGMENT_SUFFIX).filter(other -> other > sequence).sorted();
+	}
+
+	private LongStream getSequencesOf(String prefix, String suffix) throws IOException {
+		try (final var paths = list(directory)) {
+			final var sequences = paths
+				.map(path -> path.getFileName().toString())
+				.filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+				.mapToLong(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+				.toArray();
+			return LongStream.of(sequences);
+		}
+	}
+
+	private Path getPathOfSegment(long sequence) {
+		return directory.resolve(format("%s%019d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+	}
+
+	private Path getPathOfSnapshot(long sequence) {
+		return directory.resolve(format("%s%019d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+	}
+
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		activeSegment.force();
+		activeSegment = null;
+	}
+
+}
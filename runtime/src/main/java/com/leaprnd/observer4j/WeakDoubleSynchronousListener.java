@@ -0,0 +1,11 @@
+package com.leaprnd.observer4j;
+
+/**
+ * @see WeakSynchronousListener
+ */
+public non-sealed interface WeakDoubleSynchronousListener extends WeakSynchronousListener<Double>, DoubleSynchronousListener {
+	@Override
+	default void onUpdate(Double before, Double after) {
+		onUpdate(before.doubleValue(), after.doubleValue());
+	}
+}
@@ -4,46 +4,54 @@ import java.lang.ref.WeakReference;
 
 import static java.lang.System.identityHashCode;
 
-final class WeakImmutableMapEntry<
-	T
-> extends WeakReference<SynchronousListener<? super T>> implements ImmutableMapEntry<T> {
+/**
+ * The weak reference to the listener is created once, when the listener is
+ * added, and shared by every entry that replaces this one, so that swapping the
+ * forwarder of a weak listener allocates no {@link java.lang.ref.Reference}.
+ */
+record WeakImmutableMapEntry<T> (Handle<T> handle, T value) implements ImmutableMapEntry<T> {
 
-	private final int identityHashCodeOfListener;
-	private final T value;
+	static final class Handle<T> extends WeakReference<SynchronousListener<? super T>> {
+
+		private final int identityHashCodeOfListener;
+		private final UpdateFilter<? super T> filter;
+
+		private Handle(SynchronousListener<? super T> listener, UpdateFilter<? super T> filter) {
+			super(listener);
+			this.filter = filter;
+			identityHashCodeOfListener = identityHashCode(listener);
+		}
 
-	public WeakImmutableMapEntry(SynchronousListener<? super T> listener, T value) {
-		this(listener, value, identityHashCode(listener));
 	}
 
-	private WeakImmutableMapEntry(SynchronousListener<? super T> listener, T value, int identityHashCodeOfListener) {
-		super(listener);
-		this.value = value;
-		this.identityHashCodeOfListener = identityHashCodeOfListener;
+	public WeakImmutableMapEntry(SynchronousListener<? super T> listener, UpdateFilter<? super T> filter, T value) {
+		this(new Handle<>(listener, filter), value);
 	}
 
 	@Override
 	public SynchronousListener<? super T> listener() {
-		return get();
+		return handle.get();
 	}
 
 	@Override
-	public T value() {
-		return value;
+	public int identityHashCodeOfListener() {
+		return handle.identityHashCodeOfListener;
 	}
 
 	@Override
-	public int identityHashCodeOfListener() {
-		return identityHashCodeOfListener;
+	public boolean wasListenerGarbageCollected() {
+		return handle.get() == null;
 	}
 
 	@Override
-	public boolean wasListenerGarbageCollected() {
-		return get() == null;
+	public boolean isInterestedIn(T oldValue, T newValue) {
+		final var filter = handle.filter;
+		return filter == null || filter.isRelevant(oldValue, newValue);
 	}
 
 	@Override
 	public ImmutableMapEntry<T> with(T newValue) {
-		return new WeakImmutableMapEntry<>(get(), newValue, identityHashCodeOfListener);
+		return new WeakImmutableMapEntry<>(handle, newValue);
 	}
 
 }
@@ -0,0 +1,11 @@
+package com.leaprnd.observer4j;
+
+/**
+ * @see WeakSynchronousListener
+ */
+public non-sealed interface WeakIntSynchronousListener extends WeakSynchronousListener<Integer>, IntSynchronousListener {
+	@Override
+	default void onUpdate(Integer before, Integer after) {
+		onUpdate(before.intValue(), after.intValue());
+	}
+}
@@ -0,0 +1,11 @@
+package com.leaprnd.observer4j;
+
+/**
+ * @see WeakSynchronousListener
+ */
+public non-sealed interface WeakLongSynchronousListener extends WeakSynchronousListener<Long>, LongSynchronousListener {
+	@Override
+	default void onUpdate(Long before, Long after) {
+		onUpdate(before.longValue(), after.longValue());
+	}
+}
@@ -0,0 +1,90 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.leaprnd.observer4j.ReturnValue.RETURN_OLD_VALUE;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AbstractCombiningListenableTest {
+
+	private static class CombiningCounter extends AbstractCombiningListenable<Long> {
+
+		public CombiningCounter(long initialValue) {
+			super(initialValue);
+		}
+
+		public long increment() {
+			return combine(oldValue -> oldValue + 1);
+		}
+
+		public long getAndIncrement() {
+			return combine(oldValue -> oldValue + 1, RETURN_OLD_VALUE);
+		}
+
+		public long fail() {
+			return combine(oldValue -> {
+				throw new IllegalStateException();
+			});
+		}
+
+	}
+
+	@Test
+	public void testConcurrentWritersReceiveDistinctResults() throws Exception {
+		final var numberOfThreads = 8;
+		final var incrementsPerThread = 10_000;
+		final var counter = new CombiningCounter(0);
+		final var lastSeen = new AtomicLong();
+		final var listener = new StrongSynchronousListener<Long>() {
+			@Override
+			public void onUpdate(Long before, Long after) {
+				assertTrue(after > before);
+				lastSeen.set(after);
+			}
+		};
+		counter.listenWith(listener);
+		final var executor = newFixedThreadPool(numberOfThreads);
+		try {
+			final var tasks = new ArrayList<Callable<long[]>>();
+			for (var thread = 0; thread < numberOfThreads; thread ++) {
+				final var even = thread % 2 == 0;
+				tasks.add(() -> {
+					final var results = new long[incrementsPerThread];
+					for (var index = 0; index < incrementsPerThread; index ++) {
+						results[index] = even ? counter.increment() : counter.getAndIncrement() + 1;
+					}
+					return results;
+				});
+			}
+			final var results = new HashSet<Long>();
+			for (final var future : executor.invokeAll(tasks)) {
+				for (final var result : future.get()) {
+					assertTrue(results.add(result));
+				}
+			}
+			final long expected = numberOfThreads * incrementsPerThread;
+			assertEquals(expected, results.size());
+			assertEquals(expected, counter.takeSnapshot());
+			assertEquals(expected, lastSeen.get());
+		} finally {
+			executor.shutdownNow();
+			counter.unlistenWith(listener);
+		}
+	}
+
+	@Test
+	public void testFailingActionOnlyFailsItsWriter() {
+		final var counter = new CombiningCounter(41);
+		assertThrows(IllegalStateException.class, counter::fail);
+		assertEquals(42, counter.increment());
+	}
+
+}
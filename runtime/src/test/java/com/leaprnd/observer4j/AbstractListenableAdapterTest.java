@@ -0,0 +1,178 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AbstractListenableAdapterTest {
+
+	private static final ImmutablePersonProperties ANAKIN_SKYWALKER = new ImmutablePersonProperties(
+		1234,
+		1,
+		"Anakin",
+		"Skywalker",
+		1.88,
+		120
+	);
+
+	private static class Switch extends AbstractListenableAdapter<Long> {
+
+		private final Counter selector;
+		private final Counter even;
+		private final Counter odd;
+		private final AtomicInteger numberOfBuilds = new AtomicInteger();
+
+		public Switch(Counter selector, Counter even, Counter odd) {
+			this.selector = selector;
+			this.even = even;
+			this.odd = odd;
+			initialize();
+		}
+
+		@Override
+		protected Long build(Listener<Object> listener) {
+			numberOfBuilds.incrementAndGet();
+			if (listener.listenTo(selector) % 2 == 0) {
+				return listener.listenTo(even);
+			} else {
+				return listener.listenTo(odd);
+			}
+		}
+
+	}
+
+	@Test
+	public void testDependenciesThatAreNoLongerReadAreUnlistened() {
+		final var selector = new Counter(0);
+		final var even = new Counter(10);
+		final var odd = new Counter(11);
+		final var adapter = new Switch(selector, even, odd);
+		assertEquals(10, adapter.takeSnapshot());
+		assertTrue(even.isObserved());
+		assertFalse(odd.isObserved());
+		selector.increment();
+		assertEquals(11, adapter.takeSnapshot());
+		assertFalse(even.isObserved());
+		assertTrue(odd.isObserved());
+		assertTrue(selector.isObserved());
+		final var numberOfBuilds = adapter.numberOfBuilds.get();
+		even.increment();
+		assertEquals(numberOfBuilds, adapter.numberOfBuilds.get());
+		odd.increment();
+		assertEquals(numberOfBuilds + 1, adapter.numberOfBuilds.get());
+		assertEquals(12, adapter.takeSnapshot());
+	}
+
+	@Test
+	public void testFieldsThatAreNoLongerReadDoNotWakeTheListener() {
+		final var selector = new Counter(0);
+		final var person = new Person(new PersonPropertiesForwarder(ANAKIN_SKYWALKER));
+		final var numberOfBuilds = new AtomicInteger();
+		final var adapter = new AbstractListenableAdapter<String>() {
+			{
+				initialize();
+			}
+
+			@Override
+			protected String build(Listener<Object> listener) {
+				numberOfBuilds.incrementAndGet();
+				final var properties = listener.listenTo(person);
+				return listener.listenTo(selector) % 2 == 0 ? properties.givenName() : properties.familyName();
+			}
+		};
+		assertEquals("Anakin", adapter.takeSnapshot());
+		selector.increment();
+		assertEquals("Skywalker", adapter.takeSnapshot());
+		assertEquals(2, numberOfBuilds.get());
+		person.update(new PersonPropertiesForwarder(
+			new ImmutablePersonProperties(1234, 2, "Darth", "Skywalker", 1.88, 120)
+		));
+		assertEquals(2, numberOfBuilds.get());
+		assertEquals("Skywalker", adapter.takeSnapshot());
+		person.update(new PersonPropertiesForwarder(
+			new ImmutablePersonProperties(1234, 3, "Darth", "Vader", 1.88, 120)
+		));
+		assertEquals(3, numberOfBuilds.get());
+		assertEquals("Vader", adapter.takeSnapshot());
+	}
+
+	private static class CountingListenable<T> implements Listenable<T> {
+
+		private final Listenable<T> delegate;
+		private final AtomicInteger numberOfUnlistens = new AtomicInteger();
+
+		public CountingListenable(Listenable<T> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public T listenWith(Listener<? super T> listener) {
+			return listener.listenTo(this);
+		}
+
+		@Override
+		public T listenWith(StrongSynchronousListener<? super T> listener) {
+			return delegate.listenWith(listener);
+		}
+
+		@Override
+		public T listenWith(WeakSynchronousListener<? super T> listener) {
+			return delegate.listenWith(listener);
+		}
+
+		@Override
+		public Optional<? extends T> relistenWith(Listener<? super T> listener) {
+			return listener.relistenTo(this);
+		}
+
+		@Override
+		public Optional<? extends T> relistenWith(SynchronousListener<? super T> listener) {
+			return delegate.relistenWith(listener);
+		}
+
+		@Override
+		public boolean unlistenWith(Listener<? super T> listener) {
+			return listener.unlistenTo(this);
+		}
+
+		@Override
+		public boolean unlistenWith(SynchronousListener<? super T> listener) {
+			numberOfUnlistens.incrementAndGet();
+			return delegate.unlistenWith(listener);
+		}
+
+		@Override
+		public T takeSnapshot() {
+			return delegate.takeSnapshot();
+		}
+
+	}
+
+	@Test
+	public void testDependenciesThatAreStillReadAreNotUnlistened() {
+		final var counter = new Counter(0);
+		final var dependency = new CountingListenable<>(counter);
+		final var adapter = new AbstractListenableAdapter<Long>() {
+			{
+				initialize();
+			}
+
+			@Override
+			protected Long build(Listener<Object> listener) {
+				return listener.listenTo(dependency) * 2;
+			}
+		};
+		for (var index = 0; index < 3; index ++) {
+			counter.increment();
+		}
+		assertEquals(6, adapter.takeSnapshot());
+		assertEquals(0, dependency.numberOfUnlistens.get());
+		assertTrue(counter.isObserved());
+	}
+
+}
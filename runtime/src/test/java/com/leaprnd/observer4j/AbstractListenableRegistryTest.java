@@ -0,0 +1,98 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AbstractListenableRegistryTest {
+
+	private static class Scores extends AbstractListenableRegistry<Integer, Long> {
+
+		public Scores(int numberOfShards) {
+			super(AbstractListenable.DIRECT_EXECUTOR, numberOfShards);
+		}
+
+		public void set(int key, long score) {
+			put(key, score);
+		}
+
+		public Long increment(int key) {
+			return update(key, oldScore -> oldScore + 1);
+		}
+
+		public boolean clear(int key) {
+			return remove(key);
+		}
+
+	}
+
+	@Test
+	public void testTablesSurviveGrowthAndRemoval() {
+		final var scores = new Scores(4);
+		for (var key = 0; key < 10_000; key ++) {
+			scores.set(key, key);
+		}
+		assertEquals(10_000, scores.size());
+		for (var key = 0; key < 10_000; key += 2) {
+			assertTrue(scores.clear(key));
+		}
+		assertFalse(scores.clear(0));
+		assertEquals(5_000, scores.size());
+		for (var key = 0; key < 10_000; key ++) {
+			if (key % 2 == 0) {
+				assertNull(scores.get(key));
+			} else {
+				assertEquals(key, scores.get(key));
+			}
+		}
+		assertNull(scores.increment(0));
+		assertEquals(2L, scores.increment(1));
+	}
+
+	@Test
+	public void testViewsAreNotifiedOfUpdates() {
+		final var scores = new Scores(64);
+		scores.set(7, 10);
+		final var listenable = scores.listenable(7);
+		assertSame(listenable, scores.listenable(7));
+		final var updates = new ArrayList<Long>();
+		final var listener = new StrongSynchronousListener<Long>() {
+			@Override
+			public void onUpdate(Long before, Long after) {
+				updates.add(after);
+			}
+		};
+		assertEquals(10L, listenable.listenWith(listener));
+		try {
+			scores.increment(7);
+			scores.set(7, 11);
+			scores.set(8, 100);
+			scores.set(7, 20);
+		} finally {
+			assertTrue(listenable.unlistenWith(listener));
+		}
+		assertEquals(List.of(11L, 20L), updates);
+		assertEquals(20L, listenable.takeSnapshot());
+	}
+
+	@Test
+	public void testViewOfAbsentKeyIsInitializedByPut() {
+		final var scores = new Scores(1);
+		final var listenable = scores.listenable(3);
+		assertNull(scores.get(3));
+		scores.set(3, 42);
+		assertEquals(42L, listenable.takeSnapshot());
+		assertTrue(scores.clear(3));
+		assertEquals(42L, listenable.takeSnapshot());
+		scores.set(3, 43);
+		assertEquals(43L, listenable.takeSnapshot());
+	}
+
+}
@@ -5,14 +5,23 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.opentest4j.AssertionFailedError;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.leaprnd.observer4j.Exceptions.unchecked;
+import static com.leaprnd.observer4j.PersonPropertiesCodec.FLAG_OF_FAMILY_NAME;
+import static com.leaprnd.observer4j.PersonPropertiesCodec.PERSON_PROPERTIES_CODEC;
+import static com.leaprnd.observer4j.UpdateFilter.onlyFields;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -306,6 +315,185 @@ public class AbstractListenableTest {
 		assertTrue(latch.await(5, SECONDS), "The strong synchronous listener was supposed to be notified!");
 	}
 
+	private static class Profile extends AbstractListenable<PersonProperties> {
+
+		private int numberOfForwarders = 0;
+
+		public Profile(PersonProperties initialValue) {
+			super(initialValue);
+		}
+
+		@Override
+		protected PersonProperties forward(PersonProperties value) {
+			numberOfForwarders ++;
+			return value;
+		}
+
+	}
+
+	@Test
+	public void testFilteredListenersAreOnlyNotifiedOfRelevantUpdates() {
+		final var profile = new Profile(ANAKIN_SKYWALKER);
+		final var updatesOfFamilyName = new ArrayList<PersonProperties>();
+		final StrongSynchronousListener<PersonProperties> familyNameListener = (before, after) -> {
+			updatesOfFamilyName.add(before);
+			updatesOfFamilyName.add(after);
+		};
+		final var updatesOfMass = new ArrayList<PersonProperties>();
+		final StrongSynchronousListener<PersonProperties> massListener = (before, after) -> updatesOfMass.add(after);
+		final var initialForwarder = profile
+			.listenWith(familyNameListener, onlyFields(PERSON_PROPERTIES_CODEC, FLAG_OF_FAMILY_NAME));
+		profile.listenWith(massListener, (before, after) -> after.massInKilograms() > before.massInKilograms());
+		try {
+			assertEquals(2, profile.numberOfForwarders);
+			final var renamed = new ImmutablePersonProperties(1234, 2, "Darth", "Skywalker", 1.88, 120);
+			profile.update(renamed);
+			assertEquals(2, profile.numberOfForwarders);
+			assertEquals(List.of(), updatesOfFamilyName);
+			assertEquals(List.of(), updatesOfMass);
+			final var heavier = new ImmutablePersonProperties(1234, 3, "Darth", "Skywalker", 1.88, 136);
+			profile.update(heavier);
+			assertEquals(3, profile.numberOfForwarders);
+			assertEquals(List.of(), updatesOfFamilyName);
+			assertEquals(List.of(heavier), updatesOfMass);
+			profile.update(DARTH_VADER);
+			assertEquals(4, profile.numberOfForwarders);
+			assertEquals(2, updatesOfFamilyName.size());
+			assertSame(initialForwarder, updatesOfFamilyName.get(0));
+			assertEquals(DARTH_VADER, updatesOfFamilyName.get(1));
+			assertEquals(List.of(heavier), updatesOfMass);
+		} finally {
+			assertTrue(profile.unlistenWith(massListener));
+			assertTrue(profile.unlistenWith(familyNameListener));
+		}
+	}
+
+	@Test
+	public void testListenersWithEqualAccessMasksShareForwarders() {
+		final var person = new Person(new PersonPropertiesForwarder(ANAKIN_SKYWALKER)) {
+			@Override
+			protected int getAccessMaskOf(PersonPropertiesForwarder forwarder) {
+				return forwarder.getFlagsOfAccessedFields();
+			}
+		};
+		final var first = new AtomicReference<PersonProperties>();
+		final var second = new AtomicReference<PersonProperties>();
+		final var third = new AtomicReference<PersonProperties>();
+		final StrongSynchronousListener<PersonProperties> firstListener = (before, after) -> first.set(after);
+		final StrongSynchronousListener<PersonProperties> secondListener = (before, after) -> second.set(after);
+		final StrongSynchronousListener<PersonProperties> thirdListener = (before, after) -> third.set(after);
+		assertEquals(ANAKIN_SKYWALKER.version(), person.listenWith(firstListener).version());
+		assertEquals(ANAKIN_SKYWALKER.version(), person.listenWith(secondListener).version());
+		assertEquals(ANAKIN_SKYWALKER.givenName(), person.listenWith(thirdListener).givenName());
+		try {
+			person.update(new PersonPropertiesForwarder(DARTH_VADER));
+			assertSame(first.get(), second.get());
+			assertNotSame(first.get(), third.get());
+			assertEquals(DARTH_VADER.version(), first.get().version());
+			assertEquals(DARTH_VADER.givenName(), third.get().givenName());
+		} finally {
+			assertTrue(person.unlistenWith(thirdListener));
+			assertTrue(person.unlistenWith(secondListener));
+			assertTrue(person.unlistenWith(firstListener));
+		}
+	}
+
+	@Test
+	public void testDetachedValuesAreMemoizedPerState() {
+		final var person = new Person(new PersonPropertiesForwarder(ANAKIN_SKYWALKER)) {
+			@Override
+			protected boolean memoizesDetachedValues() {
+				return true;
+			}
+		};
+		final var snapshot = person.takeSnapshot();
+		assertSame(snapshot, person.takeSnapshot());
+		final StrongSynchronousListener<PersonProperties> listener = (before, after) -> {};
+		person.listenWith(listener);
+		try {
+			assertSame(snapshot, person.takeSnapshot());
+			final var updated = person.update(new PersonPropertiesForwarder(DARTH_VADER));
+			assertNotSame(snapshot, updated);
+			assertSame(updated, person.takeSnapshot());
+			assertEquals(DARTH_VADER.givenName(), updated.givenName());
+		} finally {
+			assertTrue(person.unlistenWith(listener));
+		}
+	}
+
+	@Test
+	public void testSnapshotAllReadsAConsistentCut() throws Exception {
+		final var first = new Counter(0);
+		final var second = new Counter(0);
+		final var writer = executor.submit(() -> {
+			for (var index = 0; index < 100_000; index ++) {
+				first.increment();
+				second.increment();
+			}
+		});
+		var numberOfSnapshots = 0;
+		while (!writer.isDone() || numberOfSnapshots == 0) {
+			final var snapshots = AbstractListenable.snapshotAll(List.of(first, second));
+			final var difference = snapshots.get(0) - snapshots.get(1);
+			assertTrue(difference == 0 || difference == 1, "Inconsistent snapshots: " + snapshots);
+			numberOfSnapshots ++;
+		}
+		writer.get();
+		assertEquals(List.of(100_000L, 100_000L), AbstractListenable.snapshotAll(List.of(first, second)));
+	}
+
+	@Test
+	public void testLateListenersCatchUpFromHistory() {
+		final var counter = new Counter(0) {
+			private final UpdateHistory<Long> history = new UpdateHistory<>(3);
+			@Override
+			protected UpdateHistory<Long> getHistory() {
+				return history;
+			}
+		};
+		counter.increment();
+		counter.increment();
+		final var version = counter.history.getVersion();
+		assertEquals(2, version);
+		for (var index = 0; index < 3; index ++) {
+			counter.increment();
+		}
+		final var updates = new ArrayList<Long>();
+		final StrongSynchronousListener<Long> listener = (before, after) -> updates.add(after);
+		assertThrows(IllegalArgumentException.class, () -> counter.listenWith(listener, version - 1));
+		assertEquals(5, counter.listenWith(listener, version));
+		assertEquals(List.of(3L, 4L, 5L), updates);
+		counter.increment();
+		assertEquals(List.of(3L, 4L, 5L, 6L), updates);
+		assertThrows(IllegalArgumentException.class, () -> counter.listenWith(listener, version));
+		assertTrue(counter.unlistenWith(listener));
+	}
+
+	@Test
+	public void testCatchingUpFromAListenerOfTheSameListenableThrows() {
+		final var counter = new Counter(0) {
+			private final UpdateHistory<Long> history = new UpdateHistory<>(3);
+			@Override
+			protected UpdateHistory<Long> getHistory() {
+				return history;
+			}
+		};
+		final var failures = new ArrayList<Throwable>();
+		final StrongSynchronousListener<Long> lateListener = (before, after) -> {};
+		final StrongSynchronousListener<Long> listener = (before, after) -> {
+			try {
+				counter.listenWith(lateListener, 0);
+			} catch (IllegalStateException exception) {
+				failures.add(exception);
+			}
+		};
+		counter.listenWith(listener);
+		counter.increment();
+		assertEquals(1, failures.size());
+		assertFalse(counter.unlistenWith(lateListener));
+		assertTrue(counter.unlistenWith(listener));
+	}
+
 	@Test
 	public void testConcurrentUpdates() {
 		final var person = new Person(executor);
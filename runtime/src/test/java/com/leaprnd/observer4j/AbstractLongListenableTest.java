@@ -0,0 +1,185 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Double.NaN;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AbstractLongListenableTest {
+
+	private static class LongCounter extends AbstractLongListenable {
+
+		public LongCounter(long initialValue) {
+			super(initialValue);
+		}
+
+		public LongCounter(Executor executor, long initialValue) {
+			super(executor, initialValue);
+		}
+
+		public long increment() {
+			return update(oldValue -> oldValue + 1);
+		}
+
+		public long set(long newValue) {
+			return update(newValue);
+		}
+
+	}
+
+	private static class Gauge extends AbstractDoubleListenable {
+
+		public Gauge(double initialValue) {
+			super(initialValue);
+		}
+
+		public double set(double newValue) {
+			return update(newValue);
+		}
+
+	}
+
+	@Test
+	public void testUpdatesWithNothingToEmitAreNotScheduled() {
+		final var numberOfExecutions = new AtomicInteger();
+		final var counter = new LongCounter(runnable -> {
+			numberOfExecutions.incrementAndGet();
+			runnable.run();
+		}, 0);
+		counter.increment();
+		counter.set(1);
+		assertEquals(0, numberOfExecutions.get());
+		final StrongLongSynchronousListener listener = (before, after) -> {};
+		counter.listenWith(listener);
+		final var numberOfExecutionsToListen = numberOfExecutions.get();
+		counter.set(1);
+		assertEquals(numberOfExecutionsToListen, numberOfExecutions.get());
+		counter.increment();
+		assertEquals(numberOfExecutionsToListen + 1, numberOfExecutions.get());
+		assertTrue(counter.unlistenWith(listener));
+	}
+
+	@Test
+	public void testLongSynchronousListenerIsNotifiedInOrder() {
+		final var counter = new LongCounter(0);
+		final var updates = new ArrayList<String>();
+		final var listener = new StrongLongSynchronousListener() {
+			@Override
+			public void onUpdate(long before, long after) {
+				updates.add(before + "->" + after);
+			}
+		};
+		assertEquals(0, counter.listenWith(listener));
+		try {
+			counter.increment();
+			counter.set(1);
+			counter.set(5);
+			counter.increment();
+		} finally {
+			assertTrue(counter.unlistenWith(listener));
+		}
+		counter.increment();
+		assertEquals(List.of("0->1", "1->5", "5->6"), updates);
+		assertEquals(7, counter.takeSnapshotAsLong());
+	}
+
+	@Test
+	public void testBoxedListenerIsNotified() {
+		final var counter = new LongCounter(41);
+		final var updates = new ArrayList<Long>();
+		final var listener = new StrongSynchronousListener<Long>() {
+			@Override
+			public void onUpdate(Long before, Long after) {
+				updates.add(after);
+			}
+		};
+		assertEquals(41L, counter.listenWith((Listener<Long>) listener));
+		try {
+			assertEquals(41L, counter.relistenWith(listener).orElseThrow());
+			counter.increment();
+		} finally {
+			assertTrue(counter.unlistenWith(listener));
+		}
+		assertEquals(List.of(42L), updates);
+		assertTrue(counter.relistenWith(listener).isEmpty());
+	}
+
+	@Test
+	public void testBoxedListenerIsNotifiedOfTheSameBoxes() {
+		final var counter = new LongCounter(1000);
+		final var befores = new ArrayList<Long>();
+		final var afters = new ArrayList<Long>();
+		final var listener = new StrongSynchronousListener<Long>() {
+			@Override
+			public void onUpdate(Long before, Long after) {
+				befores.add(before);
+				afters.add(after);
+			}
+		};
+		final var initialValue = counter.listenWith(listener);
+		try {
+			counter.set(2000);
+			counter.increment();
+			counter.increment();
+		} finally {
+			counter.unlistenWith(listener);
+		}
+		assertSame(initialValue, befores.get(0));
+		for (int index = 1; index < befores.size(); index ++) {
+			assertSame(afters.get(index - 1), befores.get(index));
+		}
+		assertEquals(List.of(2000L, 2001L, 2002L), afters);
+	}
+
+	@Test
+	public void testConcurrentIncrements() throws InterruptedException {
+		final var counter = new LongCounter(0);
+		final var executor = newFixedThreadPool(4);
+		try {
+			for (int task = 0; task < 4; task ++) {
+				executor.execute(() -> {
+					for (int index = 0; index < 1000; index ++) {
+						counter.increment();
+					}
+				});
+			}
+		} finally {
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(5, SECONDS));
+		}
+		assertEquals(4000, counter.takeSnapshotAsLong());
+	}
+
+	@Test
+	public void testDoubleUpdatesAreSkippedWhenEqual() {
+		final var gauge = new Gauge(NaN);
+		final var updates = new ArrayList<Double>();
+		final var listener = new StrongDoubleSynchronousListener() {
+			@Override
+			public void onUpdate(double before, double after) {
+				updates.add(after);
+			}
+		};
+		gauge.listenWith(listener);
+		try {
+			gauge.set(NaN);
+			gauge.set(1.5);
+			gauge.set(1.5);
+			gauge.set(-0.0);
+			gauge.set(0.0);
+		} finally {
+			gauge.unlistenWith(listener);
+		}
+		assertEquals(List.of(1.5, -0.0, 0.0), updates);
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccumulatingLongListenableTest {
+
+	@Test
+	public void testWritesAreOnlySeenOncePublished() throws InterruptedException {
+		final var sum = AccumulatingLongListenable.sum();
+		final var updates = new ArrayList<Long>();
+		final StrongLongSynchronousListener listener = (before, after) -> updates.add(after);
+		assertEquals(0, sum.listenWith(listener));
+		final var threads = new ArrayList<Thread>();
+		for (var index = 0; index < 4; index ++) {
+			final var thread = new Thread(() -> {
+				for (var count = 0; count < 1000; count ++) {
+					sum.accumulate(1);
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		for (final var thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, sum.takeSnapshotAsLong());
+		assertEquals(4000, sum.publish());
+		assertEquals(4000, sum.publish());
+		assertEquals(List.of(4000L), updates);
+		assertTrue(sum.unlistenWith(listener));
+	}
+
+	@Test
+	public void testAccumulatedValueIsPublishedPeriodically() throws InterruptedException {
+		final var scheduler = newSingleThreadScheduledExecutor();
+		try (final var maximum = AccumulatingLongListenable.maximum()) {
+			maximum.start(scheduler, Duration.ofMillis(10));
+			final var published = new CountDownLatch(1);
+			final StrongLongSynchronousListener listener = (before, after) -> {
+				if (after == 42) {
+					published.countDown();
+				}
+			};
+			maximum.listenWith(listener);
+			maximum.accumulate(7);
+			maximum.accumulate(42);
+			maximum.accumulate(13);
+			assertTrue(published.await(10, SECONDS));
+			assertEquals(42, maximum.takeSnapshotAsLong());
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testPublicationsCarryOnAfterOneThrows() throws InterruptedException {
+		final var scheduler = newSingleThreadScheduledExecutor();
+		final var rejections = new AtomicInteger();
+		final Executor executor = command -> {
+			if (rejections.getAndDecrement() > 0) {
+				throw new RejectedExecutionException();
+			}
+			command.run();
+		};
+		try (final var sum = new AccumulatingLongListenable(executor, Long::sum, 0)) {
+			final var published = new CountDownLatch(1);
+			final StrongLongSynchronousListener listener = (before, after) -> {
+				if (after == 2) {
+					published.countDown();
+				}
+			};
+			sum.listenWith(listener);
+			rejections.set(1);
+			sum.accumulate(1);
+			sum.start(scheduler, Duration.ofMillis(10));
+			while (rejections.get() > 0) {
+				Thread.sleep(1);
+			}
+			sum.accumulate(1);
+			assertTrue(published.await(10, SECONDS));
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testForgottenListenablesStopBeingPublished() throws InterruptedException {
+		final var scheduler = new ScheduledThreadPoolExecutor(1);
+		scheduler.setRemoveOnCancelPolicy(true);
+		try {
+			AccumulatingLongListenable.sum().start(scheduler, Duration.ofMillis(1));
+			final var deadline = System.nanoTime() + SECONDS.toNanos(10);
+			while (!scheduler.getQueue().isEmpty()) {
+				assertTrue(System.nanoTime() < deadline);
+				System.gc();
+				Thread.sleep(10);
+			}
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testStartingTwiceThrows() {
+		final var scheduler = newSingleThreadScheduledExecutor();
+		try (final var sum = AccumulatingLongListenable.sum()) {
+			sum.start(scheduler, Duration.ofSeconds(1));
+			assertThrows(IllegalStateException.class, () -> sum.start(scheduler, Duration.ofSeconds(1)));
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchingExecutorTest {
+
+	private static class CountingRefreshable extends AbstractRefreshable {
+
+		private final AtomicInteger numberOfRefreshes;
+
+		public CountingRefreshable(BatchingExecutor executor, AtomicInteger numberOfRefreshes) {
+			super(executor);
+			this.numberOfRefreshes = numberOfRefreshes;
+		}
+
+		@Override
+		protected void refresh(int numberOfRequests) {
+			numberOfRefreshes.incrementAndGet();
+		}
+
+	}
+
+	@Test
+	public void testRefreshesAreDrainedInBatches() {
+		final var submitted = new ArrayDeque<Runnable>();
+		final var executor = new BatchingExecutor(submitted::add, 100, 2);
+		final var numberOfRefreshes = new AtomicInteger();
+		final var refreshables = new ArrayList<CountingRefreshable>();
+		for (var index = 0; index < 1000; index ++) {
+			final var refreshable = new CountingRefreshable(executor, numberOfRefreshes);
+			refreshables.add(refreshable);
+			refreshable.requestAsynchronousRefresh();
+		}
+		assertEquals(2, submitted.size());
+		var numberOfSubmissions = 0;
+		while (!submitted.isEmpty()) {
+			submitted.poll().run();
+			numberOfSubmissions ++;
+		}
+		assertEquals(1000, numberOfRefreshes.get());
+		assertTrue(numberOfSubmissions <= 12, "Expected at most 12 submissions but there were " + numberOfSubmissions);
+		for (final var refreshable : refreshables) {
+			refreshable.requestAsynchronousRefresh();
+		}
+		while (!submitted.isEmpty()) {
+			submitted.poll().run();
+		}
+		assertEquals(2000, numberOfRefreshes.get());
+	}
+
+	@Test
+	public void testFailingTaskDoesNotStopTheBatch() {
+		final var submitted = new ArrayDeque<Runnable>();
+		final var executor = new BatchingExecutor(submitted::add, 10, 1);
+		final var runs = new AtomicInteger();
+		executor.execute(runs::incrementAndGet);
+		executor.execute(() -> {
+			throw new IllegalStateException();
+		});
+		executor.execute(runs::incrementAndGet);
+		assertEquals(1, submitted.size());
+		submitted.poll().run();
+		assertEquals(2, runs.get());
+		assertTrue(submitted.isEmpty());
+	}
+
+	@Test
+	public void testDrainingInlineDoesNotRecurse() {
+		final var executor = new BatchingExecutor(Runnable::run, 1, 1);
+		final var runs = new AtomicInteger();
+		executor.execute(() -> {
+			for (var index = 0; index < 100_000; index ++) {
+				executor.execute(runs::incrementAndGet);
+			}
+		});
+		assertEquals(100_000, runs.get());
+	}
+
+	@Test
+	public void testRejectedDrainerCarriesOnDraining() {
+		final var submitted = new ArrayDeque<Runnable>();
+		final var executor = new BatchingExecutor(task -> {
+			if (!submitted.isEmpty()) {
+				throw new RejectedExecutionException();
+			}
+			submitted.add(task);
+		}, 10, 1);
+		final var runs = new AtomicInteger();
+		for (var index = 0; index < 100; index ++) {
+			executor.execute(runs::incrementAndGet);
+		}
+		assertEquals(1, submitted.size());
+		submitted.peek().run();
+		assertEquals(100, runs.get());
+	}
+
+}
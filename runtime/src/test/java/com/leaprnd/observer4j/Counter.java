@@ -0,0 +1,29 @@
+package com.leaprnd.observer4j;
+
+import java.util.concurrent.Executor;
+
+class Counter extends AbstractListenable<Long> {
+
+	public Counter() {}
+
+	public Counter(long initialValue) {
+		super(initialValue);
+	}
+
+	public Counter(Executor executor) {
+		super(executor);
+	}
+
+	public Counter(Executor executor, long initialValue) {
+		super(executor, initialValue);
+	}
+
+	public long increment() {
+		return update(oldValue -> oldValue + 1);
+	}
+
+	public long set(long newValue) {
+		return update(newValue);
+	}
+
+}
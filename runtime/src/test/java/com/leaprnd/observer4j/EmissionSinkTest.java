@@ -0,0 +1,113 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmissionSinkTest {
+
+	private static final class Register extends AbstractListenable<Long> {
+
+		private final EmissionSink<Long> sink;
+
+		private Register(EmissionSink<Long> sink, long initialValue) {
+			super(initialValue);
+			this.sink = sink;
+		}
+
+		private void set(long newValue) {
+			update(newValue);
+		}
+
+		@Override
+		protected void emitUpdateGlobally(Long oldValue, Long newValue) {
+			sink.accept(this, oldValue, newValue);
+		}
+
+	}
+
+	@Test
+	public void testUpdatesAreBatchedBySize() throws InterruptedException {
+		final var batches = new ArrayList<List<Long>>();
+		final var sink = new EmissionSink<Long>(batch -> {
+			final var newValues = new ArrayList<Long>();
+			for (final var update : batch) {
+				newValues.add(update.newValue());
+			}
+			batches.add(newValues);
+		}, 2, Duration.ofHours(1), false);
+		final var register = new Register(sink, 0);
+		for (var value = 1; value <= 5; value ++) {
+			register.set(value);
+		}
+		sink.close();
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L), batches.stream().flatMap(List::stream).toList());
+		for (final var batch : batches) {
+			assertTrue(batch.size() <= 2);
+		}
+	}
+
+	@Test
+	public void testOnlyTheLatestUpdateOfEachSourceIsKept() throws InterruptedException {
+		final var updates = new ArrayList<EmissionSink.Update<Long>>();
+		final var sink = new EmissionSink<Long>(updates::addAll, 100, Duration.ofHours(1), true);
+		final var first = new Register(sink, 0);
+		final var second = new Register(sink, 10);
+		first.set(1);
+		second.set(11);
+		first.set(2);
+		first.set(3);
+		sink.close();
+		assertEquals(
+			List.of(new EmissionSink.Update<>(first, 0L, 3L), new EmissionSink.Update<>(second, 10L, 11L)),
+			updates
+		);
+	}
+
+	@Test
+	public void testUpdatesArePassedOnOnceTheyHaveWaitedLongEnough() throws InterruptedException {
+		final var received = new CountDownLatch(1);
+		final var sizesOfBatches = new ArrayList<Integer>();
+		final var sink = new EmissionSink<Long>(batch -> {
+			sizesOfBatches.add(batch.size());
+			received.countDown();
+		}, 100, Duration.ofMillis(20), false);
+		try {
+			final var register = new Register(sink, 0);
+			for (var value = 1; value <= 3; value ++) {
+				register.set(value);
+			}
+			assertTrue(received.await(5, SECONDS));
+		} finally {
+			sink.close();
+		}
+		assertEquals(3, sizesOfBatches.stream().mapToInt(Integer::intValue).sum());
+		assertTrue(sizesOfBatches.get(0) < 100);
+	}
+
+	@Test
+	public void testFullSinkWaitsForTheConsumer() throws InterruptedException {
+		final var newValues = new ArrayList<Long>();
+		final var sink = new EmissionSink<Long>(batch -> {
+			for (final var update : batch) {
+				newValues.add(update.newValue());
+			}
+		}, 1, Duration.ZERO, false, 2);
+		final var register = new Register(sink, 0);
+		final var expected = new ArrayList<Long>();
+		for (var value = 1L; value <= 1000; value ++) {
+			register.set(value);
+			expected.add(value);
+		}
+		sink.close();
+		assertEquals(expected, newValues);
+	}
+
+}
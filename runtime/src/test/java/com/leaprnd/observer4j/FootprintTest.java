@@ -0,0 +1,105 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openjdk.jol.vm.VM.current;
+
+public class FootprintTest {
+
+	private static final long SIZE_OF_HEADER = current().objectHeaderSize();
+	private static final long SIZE_OF_REFERENCE = current().sizeOfField("oop");
+	private static final long SIZE_OF_INT = current().sizeOfField("int");
+
+	private static long align(long size) {
+		final var alignment = current().objectAlignment();
+		return (size + alignment - 1) / alignment * alignment;
+	}
+
+	private static long sizeOf(int numberOfReferences, int numberOfInts) {
+		return align(SIZE_OF_HEADER + numberOfReferences * SIZE_OF_REFERENCE + numberOfInts * SIZE_OF_INT);
+	}
+
+	private static long sizeOfArray(int length) {
+		return align(current().arrayHeaderSize() + length * SIZE_OF_REFERENCE);
+	}
+
+	private static final long SIZE_OF_LISTENABLE = sizeOf(3, 0);
+	private static final long SIZE_OF_VALUE_STATE = sizeOf(4, 0);
+	private static final long SIZE_OF_SINGLETON_MAP = sizeOf(1, 0);
+	private static final long SIZE_OF_STRONG_ENTRY = sizeOf(3, 0);
+	private static final long SIZE_OF_EMISSION = sizeOf(8, 3);
+
+	private static long getRetainedSizeOf(Object root, Object ... shared) {
+		return GraphLayout.parseInstance(root).subtract(GraphLayout.parseInstance(shared)).totalSize();
+	}
+
+	private static final StrongSynchronousListener<Long> LISTENER = (before, after) -> {};
+	private static final StrongSynchronousListener<Long> OTHER_LISTENER = (before, after) -> {};
+
+	@Test
+	public void testIdleListenableRetainsOnlyItsValue() {
+		final var counter = new Counter(1000);
+		assertEquals(SIZE_OF_LISTENABLE, getRetainedSizeOf(counter, counter.executor, counter.takeSnapshot()));
+		counter.increment();
+		assertEquals(SIZE_OF_LISTENABLE, getRetainedSizeOf(counter, counter.executor, counter.takeSnapshot()));
+	}
+
+	@Test
+	public void testOneListenerDoesNotNeedAnArray() {
+		final var counter = new Counter(1000);
+		counter.listenWith(LISTENER);
+		assertEquals(
+			SIZE_OF_LISTENABLE + SIZE_OF_VALUE_STATE + SIZE_OF_SINGLETON_MAP + SIZE_OF_STRONG_ENTRY,
+			getRetainedSizeOf(counter, counter.executor, counter.takeSnapshot(), LISTENER)
+		);
+		assertTrue(counter.unlistenWith(LISTENER));
+		assertEquals(SIZE_OF_LISTENABLE, getRetainedSizeOf(counter, counter.executor, counter.takeSnapshot()));
+	}
+
+	@Test
+	public void testPendingEmissionIsOneBatchPerUpdate() {
+		final Executor executor = runnable -> {};
+		final var counter = new Counter(executor, 1000);
+		final var oldValue = counter.listenWith(LISTENER);
+		counter.listenWith(OTHER_LISTENER);
+		counter.increment();
+		final var newValue = counter.takeSnapshot();
+		final var sizeOfMap = sizeOf(1, 0) + sizeOfArray(2);
+		assertEquals(
+			SIZE_OF_LISTENABLE + SIZE_OF_VALUE_STATE + sizeOfMap + 4 * SIZE_OF_STRONG_ENTRY + SIZE_OF_EMISSION
+				+ 2 * sizeOfArray(2),
+			getRetainedSizeOf(counter, executor, oldValue, newValue, LISTENER, OTHER_LISTENER)
+		);
+		counter.run();
+		assertEquals(
+			SIZE_OF_LISTENABLE + SIZE_OF_VALUE_STATE + sizeOfMap + 2 * SIZE_OF_STRONG_ENTRY,
+			getRetainedSizeOf(counter, executor, newValue, LISTENER, OTHER_LISTENER)
+		);
+	}
+
+	@Test
+	public void testUpdatesDoNotAllocateWeakReferences() {
+		final Executor executor = runnable -> {};
+		final var counter = new Counter(executor, 1000);
+		final WeakSynchronousListener<Long> listener = (before, after) -> {};
+		counter.listenWith(listener);
+		counter.increment();
+		counter.increment();
+		final var layout = GraphLayout.parseInstance(counter).subtract(GraphLayout.parseInstance(executor, listener));
+		assertEquals(3, layout.getClassCounts().count(WeakImmutableMapEntry.class));
+		assertEquals(1, layout.getClassCounts().count(WeakImmutableMapEntry.Handle.class));
+	}
+
+	@Test
+	public void testForwarderRetainsOnlyItsState() {
+		final var delegate = new ImmutablePersonProperties(1, 1, "Leia", "Organa", 1.5, 49);
+		final var forwarder = new PersonPropertiesForwarder(delegate);
+		assertEquals(sizeOf(1, 0) + sizeOf(1, 1), getRetainedSizeOf(forwarder, delegate));
+	}
+
+}
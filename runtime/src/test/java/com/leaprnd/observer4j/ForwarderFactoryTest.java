@@ -0,0 +1,115 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.leaprnd.observer4j.ForwardStrategy.FORWARD_WITHOUT_MARKING_ANY_FIELDS_AS_ACCESSED;
+import static java.lang.invoke.MethodHandles.lookup;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ForwarderFactoryTest {
+
+	interface Named {
+		String name();
+	}
+
+	interface Account extends Named {
+
+		long balance();
+		double rate();
+
+		@Forward(FORWARD_WITHOUT_MARKING_ANY_FIELDS_AS_ACCESSED)
+		long id();
+
+		default String describe() {
+			return name() + ": " + balance();
+		}
+
+		boolean hasAtLeast(long amount);
+
+	}
+
+	private record ImmutableAccount(long id, String name, long balance, double rate) implements Account {
+		@Override
+		public boolean hasAtLeast(long amount) {
+			return balance >= amount;
+		}
+	}
+
+	private static final class Accounts extends AbstractListenable<Account> {
+
+		private static final ForwarderFactory<Account> FORWARDERS = ForwarderFactory.of(lookup(), Account.class);
+
+		private Accounts(Account initialValue) {
+			super(initialValue);
+		}
+
+		private void set(Account newValue) {
+			update(newValue);
+		}
+
+		@Override
+		protected Account forward(Account value) {
+			return FORWARDERS.forward(value);
+		}
+
+		@Override
+		protected boolean tryToRedelegate(Account oldValue, Account newValue) {
+			return FORWARDERS.tryToReplaceDelegate(oldValue, newValue);
+		}
+
+		@Override
+		protected int getAccessMaskOf(Account forwarder) {
+			return FORWARDERS.getFlagsOfAccessedFields(forwarder);
+		}
+
+	}
+
+	@Test
+	public void testForwardersFollowTheRulesOfTheAnnotationProcessor() {
+		final var factory = ForwarderFactory.of(Account.class);
+		assertSame(factory, ForwarderFactory.of(lookup(), Account.class));
+		final var delegate = new ImmutableAccount(1, "Checking", 100, 0.5);
+		final var forwarder = factory.forward(delegate);
+		assertTrue(forwarder.getClass().isHidden());
+		assertTrue(factory.isForwarder(forwarder));
+		assertSame(delegate, factory.getDelegateOf(factory.forward(forwarder)));
+		assertEquals(1, forwarder.id());
+		assertEquals(0, factory.getFlagsOfAccessedFields(forwarder));
+		assertEquals("Checking: 100", forwarder.describe());
+		final var flagsOfNameAndBalance = factory.getFlagsOfAccessedFields(forwarder);
+		assertEquals(2, Integer.bitCount(flagsOfNameAndBalance));
+		assertTrue(factory.tryToReplaceDelegate(forwarder, new ImmutableAccount(2, "Checking", 100, 0.7)));
+		assertFalse(factory.tryToReplaceDelegate(forwarder, new ImmutableAccount(2, "Checking", 50, 0.7)));
+		assertEquals(0.7, forwarder.rate());
+		assertTrue(forwarder.hasAtLeast(100));
+		assertEquals(0b111, factory.getFlagsOfAccessedFields(forwarder));
+		assertEquals(delegate.toString().replace("id=1", "id=2").replace("0.5", "0.7"), forwarder.toString());
+		assertThrows(IllegalArgumentException.class, () -> ForwarderFactory.of(ImmutableAccount.class));
+	}
+
+	@Test
+	public void testListenersAreOnlyNotifiedOfUpdatesToFieldsTheyRead() {
+		final var accounts = new Accounts(new ImmutableAccount(1, "Savings", 100, 1.5));
+		final var balances = new ArrayList<Long>();
+		final var rates = new ArrayList<Double>();
+		final StrongSynchronousListener<Account> balanceListener = (before, after) -> balances.add(after.balance());
+		final StrongSynchronousListener<Account> rateListener = (before, after) -> rates.add(after.rate());
+		accounts.listenWith(balanceListener).balance();
+		accounts.listenWith(rateListener).rate();
+		accounts.set(new ImmutableAccount(1, "Savings", 150, 1.5));
+		accounts.set(new ImmutableAccount(1, "Savings", 150, 2.0));
+		accounts.set(new ImmutableAccount(1, "Renamed", 150, 2.0));
+		assertEquals(List.of(150L), balances);
+		assertEquals(List.of(2.0), rates);
+		assertTrue(accounts.unlistenWith(balanceListener));
+		assertTrue(accounts.unlistenWith(rateListener));
+	}
+
+}
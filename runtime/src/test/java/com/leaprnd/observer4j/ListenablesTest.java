@@ -0,0 +1,105 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.leaprnd.observer4j.Listenables.combine;
+import static com.leaprnd.observer4j.Listenables.map;
+import static com.leaprnd.observer4j.Listenables.select;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ListenablesTest {
+
+	@Test
+	public void testMapOnlyComputesWhenRead() {
+		final var counter = new Counter(1);
+		final var numberOfComputations = new AtomicInteger();
+		final var parity = map(counter, value -> {
+			numberOfComputations.incrementAndGet();
+			return value % 2 == 0;
+		});
+		counter.increment();
+		counter.increment();
+		assertEquals(0, numberOfComputations.get());
+		assertEquals(false, parity.takeSnapshot());
+		assertEquals(false, parity.takeSnapshot());
+		assertEquals(1, numberOfComputations.get());
+		counter.increment();
+		assertEquals(true, parity.takeSnapshot());
+		assertEquals(2, numberOfComputations.get());
+	}
+
+	@Test
+	public void testMapOnlyNotifiesWhenTheDerivedValueChanges() {
+		final var counter = new Counter(0);
+		final var numberOfComputations = new AtomicInteger();
+		final var tens = map(counter, value -> {
+			numberOfComputations.incrementAndGet();
+			return value / 10;
+		});
+		final var updates = new ArrayList<Long>();
+		final StrongSynchronousListener<Long> listener = (before, after) -> updates.add(after);
+		assertEquals(0, tens.listenWith(listener));
+		for (var index = 0; index < 25; index ++) {
+			counter.increment();
+		}
+		assertEquals(List.of(1L, 2L), updates);
+		assertEquals(26, numberOfComputations.get());
+		assertTrue(tens.unlistenWith(listener));
+		counter.increment();
+		assertEquals(26, numberOfComputations.get());
+		assertEquals(2, tens.takeSnapshot());
+		assertEquals(27, numberOfComputations.get());
+	}
+
+	@Test
+	public void testCombine() {
+		final var first = new Counter(1);
+		final var second = new Counter(2);
+		final var sum = combine(first, second, Long::sum);
+		assertEquals(3, sum.takeSnapshot());
+		final var updates = new ArrayList<Long>();
+		final StrongSynchronousListener<Long> listener = (before, after) -> updates.add(after);
+		assertEquals(3, sum.listenWith(listener));
+		try {
+			first.increment();
+			second.set(5);
+			assertEquals(List.of(4L, 7L), updates);
+			assertEquals(7, sum.takeSnapshot());
+		} finally {
+			assertTrue(sum.unlistenWith(listener));
+		}
+	}
+
+	@Test
+	public void testSelectIsOnlyWokenByTheSelectedField() {
+		final var anakin = new ImmutablePersonProperties(1234, 1, "Anakin", "Skywalker", 1.88, 120);
+		final var person = new Person(new PersonPropertiesForwarder(anakin));
+		final var numberOfCalls = new AtomicInteger();
+		final var givenName = select(person, properties -> {
+			numberOfCalls.incrementAndGet();
+			return properties.givenName();
+		});
+		final var updates = new ArrayList<String>();
+		final StrongSynchronousListener<String> listener = (before, after) -> updates.add(after);
+		assertEquals("Anakin", givenName.listenWith(listener));
+		try {
+			final var vader = new ImmutablePersonProperties(1234, 2, "Darth", "Vader", 2.03, 136);
+			person.update(new PersonPropertiesForwarder(vader));
+			assertEquals(2, numberOfCalls.get());
+			for (var version = 3; version <= 5; version ++) {
+				final var properties = new ImmutablePersonProperties(1234, version, "Darth", "Vader", version, 136);
+				person.update(new PersonPropertiesForwarder(properties));
+			}
+			assertEquals(2, numberOfCalls.get());
+			assertEquals(List.of("Darth"), updates);
+		} finally {
+			assertTrue(givenName.unlistenWith(listener));
+		}
+	}
+
+}
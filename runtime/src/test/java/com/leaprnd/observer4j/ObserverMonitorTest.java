@@ -0,0 +1,121 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ObserverMonitorTest {
+
+	private static final class Refreshable extends AbstractRefreshable {
+
+		private Refreshable() {
+			super(runnable -> {});
+		}
+
+		@Override
+		protected void refresh(int numberOfRequests) {}
+
+	}
+
+	private static final class Gauge extends AbstractLongListenable {
+
+		private Gauge(Executor executor, long initialValue) {
+			super(executor, initialValue);
+		}
+
+		private void set(long newValue) {
+			update(newValue);
+		}
+
+	}
+
+	@Test
+	public void testStatisticsOfSampledInstances() throws JMException {
+		final var objectName = new ObjectName(ObserverMonitor.OBJECT_NAME);
+		final Executor executor = runnable -> {};
+		try (final var monitor = ObserverMonitor.start(1, 2, Duration.ofHours(1))) {
+			final var busy = new Counter(executor, 0);
+			final var idle = new Counter(0);
+			final var uninitialized = new Counter();
+			final var refreshable = new Refreshable();
+			final StrongSynchronousListener<Long> strongListener = (before, after) -> {};
+			final WeakSynchronousListener<Long> weakListener = (before, after) -> {};
+			busy.listenWith(strongListener);
+			busy.listenWith(weakListener);
+			busy.increment();
+			busy.increment();
+			idle.listenWith(strongListener);
+			assertTrue(refreshable.freeze());
+			refreshable.requestAsynchronousRefresh();
+			monitor.refresh();
+			assertEquals(3, monitor.getNumberOfSampledListenables());
+			assertEquals(1, monitor.getNumberOfUninitializedListenables());
+			assertEquals(2, monitor.getNumberOfStrongListeners());
+			assertEquals(1, monitor.getNumberOfWeakListeners());
+			assertEquals(2, monitor.getMaximumNumberOfPendingEmissions());
+			assertEquals(1, monitor.getNumberOfFrozenRefreshables());
+			assertEquals(1, monitor.getNumberOfPendingRefreshRequests());
+			final var server = getPlatformMBeanServer();
+			assertArrayEquals(
+				new String[] {Counter.class.getName() + "@" + Integer.toHexString(System.identityHashCode(busy)) + ": 2"},
+				(String[]) server.getAttribute(objectName, "ListenablesWithTheMostPendingEmissions")
+			);
+			final var graph = (String) server.invoke(objectName, "dumpGraph", null, null);
+			assertTrue(graph.contains("strong=1, weak=1, pending=2, lastDrained=unknown"));
+			assertTrue(graph.contains("uninitialized"));
+			assertTrue(graph.contains("state=FROZEN, pendingRequests=1"));
+			assertTrue(busy.unlistenWith(strongListener));
+			assertTrue(idle.unlistenWith(strongListener));
+			assertFalse(uninitialized.isInitialized());
+		}
+		assertFalse(getPlatformMBeanServer().isRegistered(objectName));
+	}
+
+	@Test
+	public void testStatisticsOfSampledPrimitiveListenables() {
+		try (final var monitor = ObserverMonitor.start(1, 1, Duration.ofHours(1))) {
+			final var gauge = new Gauge(runnable -> {}, 0);
+			final StrongLongSynchronousListener strongListener = (before, after) -> {};
+			final WeakSynchronousListener<Long> weakListener = (before, after) -> {};
+			gauge.listenWith(strongListener);
+			gauge.listenWith(weakListener);
+			gauge.set(1);
+			gauge.set(2);
+			gauge.set(3);
+			monitor.refresh();
+			assertEquals(1, monitor.getNumberOfSampledListenables());
+			assertEquals(1, monitor.getNumberOfStrongListeners());
+			assertEquals(1, monitor.getNumberOfWeakListeners());
+			assertEquals(3, monitor.getMaximumNumberOfPendingEmissions());
+			assertTrue(monitor.dumpGraph().contains("strong=1, weak=1, pending=3"));
+			assertTrue(gauge.unlistenWith(strongListener));
+		}
+	}
+
+	@Test
+	public void testStartingASecondMonitorLeavesTheFirstRunning() throws JMException {
+		final var objectName = new ObjectName(ObserverMonitor.OBJECT_NAME);
+		try (final var monitor = ObserverMonitor.start(1, 1, Duration.ofHours(1))) {
+			assertThrows(IllegalStateException.class, () -> ObserverMonitor.start(1, 1, Duration.ofHours(1)));
+			assertTrue(getPlatformMBeanServer().isRegistered(objectName));
+			final var counter = new Counter(0);
+			monitor.refresh();
+			assertEquals(1, monitor.getNumberOfSampledListenables());
+			assertEquals(0, counter.takeSnapshot());
+		}
+		assertFalse(getPlatformMBeanServer().isRegistered(objectName));
+		ObserverMonitor.start(1, 1, Duration.ofHours(1)).close();
+	}
+
+}
@@ -0,0 +1,124 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Math.floorMod;
+import static java.lang.System.identityHashCode;
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PartitionedExecutorTest {
+
+	@Test
+	public void testListenableIsAlwaysDrainedByTheSameThread() throws Exception {
+		final var threads = new HashSet<Thread>();
+		final var updates = new ArrayList<Long>();
+		final var done = new CountDownLatch(1);
+		try (final var executor = new PartitionedExecutor(4, 8)) {
+			final var counter = new Counter(executor, 0);
+			final var listener = new StrongSynchronousListener<Long>() {
+				@Override
+				public void onUpdate(Long before, Long after) {
+					threads.add(currentThread());
+					updates.add(after);
+					if (after == 1000) {
+						done.countDown();
+					}
+				}
+			};
+			counter.listenWith(listener);
+			for (var index = 0; index < 1000; index ++) {
+				counter.increment();
+			}
+			assertTrue(done.await(10, SECONDS));
+			counter.unlistenWith(listener);
+		}
+		assertEquals(1, threads.size());
+		for (var index = 1; index < updates.size(); index ++) {
+			assertTrue(updates.get(index - 1) < updates.get(index));
+		}
+		assertEquals(1000L, updates.get(updates.size() - 1));
+	}
+
+	@Test
+	public void testFullPartitionRunsItsOwnTasksInline() throws Exception {
+		final var runs = new AtomicInteger();
+		final var done = new CountDownLatch(1);
+		final Runnable task = runs::incrementAndGet;
+		try (final var executor = new PartitionedExecutor(1, 2)) {
+			executor.execute(() -> {
+				for (var index = 0; index < 100; index ++) {
+					executor.execute(task);
+				}
+				executor.execute(done::countDown);
+			});
+			assertTrue(done.await(10, SECONDS));
+		}
+		assertEquals(100, runs.get());
+	}
+
+	@Test
+	public void testSaturatedPartitionsFeedingEachOtherDoNotDeadlock() throws Exception {
+		final var runs = new AtomicInteger();
+		final var done = new CountDownLatch(2);
+		final var barrier = new CyclicBarrier(2);
+		try (final var executor = new PartitionedExecutor(2, 2)) {
+			final var toFirst = pinnedTo(0, 2, runs::incrementAndGet);
+			final var toSecond = pinnedTo(1, 2, runs::incrementAndGet);
+			executor.execute(pinnedTo(0, 2, () -> flood(barrier, executor, toSecond, done)));
+			executor.execute(pinnedTo(1, 2, () -> flood(barrier, executor, toFirst, done)));
+			assertTrue(done.await(10, SECONDS));
+		}
+		assertEquals(200, runs.get());
+	}
+
+	private static void flood(CyclicBarrier barrier, Executor executor, Runnable task, CountDownLatch done) {
+		try {
+			barrier.await();
+		} catch (Exception exception) {
+			throw new IllegalStateException(exception);
+		}
+		for (var index = 0; index < 100; index ++) {
+			executor.execute(task);
+		}
+		done.countDown();
+	}
+
+	private static Runnable pinnedTo(int indexOfPartition, int numberOfPartitions, Runnable task) {
+		while (true) {
+			final Runnable pinned = () -> task.run();
+			if (floorMod(identityHashCode(pinned), numberOfPartitions) == indexOfPartition) {
+				return pinned;
+			}
+		}
+	}
+
+	@Test
+	public void testCloseDrainsAndRejects() throws Exception {
+		final var runs = new ArrayList<Integer>();
+		final var executor = new PartitionedExecutor(1, 64);
+		for (var index = 0; index < 50; index ++) {
+			final var value = index;
+			executor.execute(() -> runs.add(value));
+		}
+		executor.close();
+		final var expected = new ArrayList<Integer>();
+		for (var index = 0; index < 50; index ++) {
+			expected.add(index);
+		}
+		assertEquals(expected, runs);
+		assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+	}
+
+}
@@ -1,6 +1,10 @@
 package com.leaprnd.observer4j;
 
-@GenerateSubstitutableForwarder(name = "PersonPropertiesForwarder", delegate = PersonProperties.class)
+@GenerateSubstitutableForwarder(
+	name = "PersonPropertiesForwarder",
+	delegate = PersonProperties.class,
+	codec = "PersonPropertiesCodec"
+)
 interface PersonProperties {
 
 	long id();
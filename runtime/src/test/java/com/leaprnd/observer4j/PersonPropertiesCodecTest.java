@@ -0,0 +1,72 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static com.leaprnd.observer4j.PersonPropertiesCodec.PERSON_PROPERTIES_CODEC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PersonPropertiesCodecTest {
+
+	private static final ImmutablePersonProperties ANAKIN_SKYWALKER = new ImmutablePersonProperties(
+		1234,
+		1,
+		"Anakin",
+		"Skywalker",
+		1.88,
+		120
+	);
+
+	private static final ImmutablePersonProperties DARTH_VADER = new ImmutablePersonProperties(
+		1234,
+		2,
+		"Darth",
+		"Vader",
+		2.03,
+		136
+	);
+
+	@Test
+	public void testEncodeAndDecodeEveryField() {
+		final var buffer = ByteBuffer.allocateDirect(PERSON_PROPERTIES_CODEC.sizeOf(ANAKIN_SKYWALKER));
+		PERSON_PROPERTIES_CODEC.encode(ANAKIN_SKYWALKER, buffer);
+		assertEquals(0, buffer.remaining());
+		final var decoded = PERSON_PROPERTIES_CODEC.decode(buffer.flip());
+		assertEquals(ANAKIN_SKYWALKER, decoded.immutableCopy());
+		assertEquals(decoded, PERSON_PROPERTIES_CODEC.decode(buffer.rewind()));
+	}
+
+	@Test
+	public void testEncodeAndDecodeChangedFields() {
+		final var flagsOfFields = PERSON_PROPERTIES_CODEC.getFlagsOfChangedFields(ANAKIN_SKYWALKER, DARTH_VADER);
+		assertEquals(0b111110, flagsOfFields);
+		final var changes = new ImmutablePersonProperties(1234, 2, "Darth", "Skywalker", 1.88, 120);
+		final var flagsOfName = PERSON_PROPERTIES_CODEC.getFlagsOfChangedFields(ANAKIN_SKYWALKER, changes);
+		assertEquals(0b000110, flagsOfName);
+		final var size = PERSON_PROPERTIES_CODEC.sizeOf(changes, flagsOfName);
+		assertEquals(Integer.BYTES + Long.BYTES + Integer.BYTES + "Darth".length(), size);
+		final var buffer = ByteBuffer.allocate(size);
+		PERSON_PROPERTIES_CODEC.encode(changes, flagsOfName, buffer);
+		assertEquals(0, buffer.remaining());
+		final var decoded = PERSON_PROPERTIES_CODEC.decode(ANAKIN_SKYWALKER, buffer.flip());
+		assertEquals(changes, decoded.immutableCopy());
+	}
+
+	@Test
+	public void testEncodeAndDecodeStrings() {
+		final var properties = new ImmutablePersonProperties(1, 1, "Padm\u00e9 \uD83D\uDE80", null, 1.65, 45);
+		final var buffer = ByteBuffer.allocate(PERSON_PROPERTIES_CODEC.sizeOf(properties));
+		PERSON_PROPERTIES_CODEC.encode(properties, buffer);
+		assertEquals(0, buffer.remaining());
+		assertEquals(properties, PERSON_PROPERTIES_CODEC.decode(buffer.flip()).immutableCopy());
+	}
+
+	@Test
+	public void testNotANumberIsUnchanged() {
+		final var oldProperties = new ImmutablePersonProperties(1, 1, "Luke", "Skywalker", Double.NaN, 73);
+		final var newProperties = new ImmutablePersonProperties(1, 1, "Luke", "Skywalker", Double.NaN, 73);
+		assertEquals(0, PERSON_PROPERTIES_CODEC.getFlagsOfChangedFields(oldProperties, newProperties));
+	}
+
+}
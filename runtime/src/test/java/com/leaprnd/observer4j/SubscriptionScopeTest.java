@@ -0,0 +1,104 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Thread.State.NEW;
+import static java.lang.Thread.State.RUNNABLE;
+import static java.lang.Thread.onSpinWait;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SubscriptionScopeTest {
+
+	@Test
+	public void testClosingTheScopeRemovesEveryListener() {
+		final var counters = new ArrayList<Counter>();
+		for (var index = 0; index < 3; index ++) {
+			counters.add(new Counter(index));
+		}
+		final var numberOfUpdates = new AtomicInteger();
+		final var listeners = new ArrayList<StrongSynchronousListener<Long>>();
+		final var scope = new SubscriptionScope();
+		for (final var counter : counters) {
+			for (var index = 0; index < 4; index ++) {
+				final StrongSynchronousListener<Long> listener = (before, after) -> numberOfUpdates.incrementAndGet();
+				listeners.add(listener);
+				scope.listenTo(counter, listener);
+			}
+		}
+		final var lazy = Listenables.map(counters.get(0), value -> value * 2);
+		scope.listenTo(lazy, listeners.get(0));
+		counters.forEach(Counter::increment);
+		assertEquals(13, numberOfUpdates.get());
+		scope.close();
+		assertTrue(scope.isClosed());
+		counters.forEach(Counter::increment);
+		assertEquals(13, numberOfUpdates.get());
+		for (final var counter : counters) {
+			for (final var listener : listeners) {
+				assertFalse(counter.unlistenWith(listener));
+			}
+		}
+		assertFalse(lazy.unlistenWith(listeners.get(0)));
+		assertThrows(IllegalStateException.class, () -> scope.listenTo(counters.get(0), listeners.get(0)));
+	}
+
+	@Test
+	public void testClosingTheScopeWhileListeningRemovesTheListener() throws Exception {
+		final var person = new Person(Runnable::run);
+		final var scope = new SubscriptionScope();
+		final StrongSynchronousListener<PersonProperties> listener = (before, after) -> {};
+		final var failure = new CompletableFuture<Throwable>();
+		final var thread = new Thread(() -> {
+			try {
+				scope.listenTo(person, listener);
+				failure.complete(null);
+			} catch (Throwable throwable) {
+				failure.complete(throwable);
+			}
+		});
+		thread.start();
+		while (thread.getState() == RUNNABLE || thread.getState() == NEW) {
+			onSpinWait();
+		}
+		scope.close();
+		person.initialize(new PersonPropertiesForwarder(new ImmutablePersonProperties(1234, 1, "Anakin", "Skywalker", 1.88, 120)));
+		assertInstanceOf(IllegalStateException.class, failure.get(5, SECONDS));
+		assertFalse(person.unlistenWith(listener));
+	}
+
+	@Test
+	public void testListenersThatWereAlreadyListeningAreNotRemoved() {
+		final var counter = new Counter(0);
+		final StrongSynchronousListener<Long> listener = (before, after) -> {};
+		counter.listenWith(listener);
+		try (final var scope = new SubscriptionScope()) {
+			assertEquals(0, scope.listenTo(counter, listener));
+		}
+		assertTrue(counter.unlistenWith(listener));
+	}
+
+	@Test
+	public void testUnlistenWithAllOnlyRemovesTheGivenListeners() {
+		final var counter = new Counter(0);
+		final StrongSynchronousListener<Long> first = (before, after) -> {};
+		final StrongSynchronousListener<Long> second = (before, after) -> {};
+		final StrongSynchronousListener<Long> third = (before, after) -> {};
+		counter.listenWith(first);
+		counter.listenWith(second);
+		counter.listenWith(third);
+		assertEquals(2, counter.unlistenWithAll(List.of(first, third)));
+		assertEquals(0, counter.unlistenWithAll(List.of(first, third)));
+		assertTrue(counter.unlistenWith(second));
+	}
+
+}
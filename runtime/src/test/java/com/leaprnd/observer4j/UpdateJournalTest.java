@@ -0,0 +1,160 @@
+package com.leaprnd.observer4j;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import static java.nio.file.Files.createTempDirectory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UpdateJournalTest {
+
+	private static final Codec<Long> LONG_CODEC = new Codec<>() {
+
+		@Override
+		public int sizeOf(Long value) {
+			return Long.BYTES;
+		}
+
+		@Override
+		public void encode(Long value, ByteBuffer buffer) {
+			buffer.putLong(value);
+		}
+
+		@Override
+		public Long decode(ByteBuffer buffer) {
+			return buffer.getLong();
+		}
+
+	};
+
+	private Path directory;
+
+	@BeforeEach
+	public void createDirectory() throws IOException {
+		directory = createTempDirectory("journal");
+	}
+
+	@AfterEach
+	public void deleteDirectory() throws IOException {
+		try (final var paths = Files.walk(directory)) {
+			for (final var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	private class JournaledCounter extends Counter {
+
+		private final UpdateJournal<Long, Long> journal;
+		private final long key;
+
+		public JournaledCounter(UpdateJournal<Long, Long> journal, long key) {
+			this.journal = journal;
+			this.key = key;
+		}
+
+		@Override
+		protected void emitUpdateGlobally(Long oldValue, Long newValue) {
+			journal.append(key, newValue);
+		}
+
+	}
+
+	@Test
+	public void testInitializeAllFromSegmentsAndSnapshots() throws IOException {
+		final var segmentSize = 64;
+		try (final var journal = new UpdateJournal<>(directory, LONG_CODEC, LONG_CODEC, segmentSize, 2, Runnable::run)) {
+			final var counters = new HashMap<Long, Counter>();
+			for (long key = 0; key < 10; key ++) {
+				final var counter = new JournaledCounter(journal, key);
+				counter.initialize(0L);
+				counters.put(key, counter);
+			}
+			for (int round = 0; round < 5; round ++) {
+				for (final var counter : counters.values()) {
+					counter.increment();
+				}
+			}
+			counters.get(3L).set(42);
+		}
+		try (final var paths = Files.list(directory)) {
+			assertTrue(paths.anyMatch(path -> path.getFileName().toString().startsWith("snapshot-")));
+		}
+		try (final var journal = new UpdateJournal<>(directory, LONG_CODEC, LONG_CODEC, segmentSize, 2, Runnable::run)) {
+			final var counters = new HashMap<Long, Counter>();
+			for (long key = 0; key < 10; key ++) {
+				counters.put(key, new Counter());
+			}
+			assertEquals(10, journal.initializeAll(counters::get));
+			for (final var entry : counters.entrySet()) {
+				final long expected = entry.getKey() == 3L ? 42 : 5;
+				assertEquals(expected, entry.getValue().takeSnapshot());
+			}
+		}
+	}
+
+	@Test
+	public void testSnapshotCompactsEverySegment() throws IOException {
+		try (final var journal = new UpdateJournal<>(directory, LONG_CODEC, LONG_CODEC, 64, 100, Runnable::run)) {
+			for (long value = 0; value < 100; value ++) {
+				journal.append(value % 3, value);
+			}
+			journal.snapshot();
+			try (final var paths = Files.list(directory)) {
+				assertEquals(2, paths.count());
+			}
+			final var recovered = new HashMap<Long, Long>();
+			assertEquals(3, journal.recover(recovered::put));
+			assertEquals(99L, recovered.get(0L));
+			assertEquals(97L, recovered.get(1L));
+			assertEquals(98L, recovered.get(2L));
+		}
+	}
+
+	@Test
+	public void testSealedSegmentsAreForcedOnTheExecutor() throws IOException {
+		final var tasks = new ArrayList<Runnable>();
+		try (final var journal = new UpdateJournal<>(directory, LONG_CODEC, LONG_CODEC, 64, 100, tasks::add)) {
+			for (long value = 0; value < 10; value ++) {
+				journal.append(value, value);
+			}
+			assertFalse(tasks.isEmpty());
+			tasks.forEach(Runnable::run);
+		}
+	}
+
+	@Test
+	public void testSnapshotOfAClosedJournalThrows() throws IOException {
+		final var journal = new UpdateJournal<>(directory, LONG_CODEC, LONG_CODEC, 64, 100, Runnable::run);
+		journal.close();
+		assertThrows(IllegalStateException.class, journal::snapshot);
+	}
+
+	@Test
+	public void testReopeningResumesTheLastSegment() throws IOException {
+		for (long value = 0; value < 3; value ++) {
+			try (final var journal = new UpdateJournal<>(directory, LONG_CODEC, LONG_CODEC, 1024, 2, Runnable::run)) {
+				final var recovered = new HashMap<Long, Long>();
+				journal.recover(recovered::put);
+				assertEquals(value == 0 ? null : value - 1, recovered.get(0L));
+				journal.append(0L, value);
+			}
+		}
+		try (final var paths = Files.list(directory)) {
+			assertEquals(1, paths.count());
+		}
+	}
+
+}
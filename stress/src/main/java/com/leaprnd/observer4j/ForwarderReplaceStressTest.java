@@ -0,0 +1,46 @@
+package com.leaprnd.observer4j;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.IZ_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+@JCStressTest
+@Description("A forwarder never replaces a delegate whose accessed field changed.")
+@Outcome(id = "1, false", expect = ACCEPTABLE, desc = "The field was read first, so the replacement was refused.")
+@Outcome(id = "2, true", expect = ACCEPTABLE, desc = "The delegate was replaced first, so the new field was read.")
+@Outcome(id = "1, true", expect = FORBIDDEN, desc = "A stale field was read and then silently replaced.")
+@Outcome(expect = FORBIDDEN, desc = "This should not be possible.")
+@State
+public class ForwarderReplaceStressTest extends AbstractSubstitutableForwarder<int[]> {
+
+	public ForwarderReplaceStressTest() {
+		super(new int[] {1});
+	}
+
+	@Override
+	protected boolean areFieldsEqual(int[] oldDelegate, int[] newDelegate, int indexOfField) {
+		return oldDelegate[indexOfField] == newDelegate[indexOfField];
+	}
+
+	@Override
+	protected int getNumberOfFields() {
+		return 1;
+	}
+
+	@Actor
+	public void reader(IZ_Result result) {
+		result.r1 = recordAccessToField(0)[0];
+	}
+
+	@Actor
+	public void replacer(IZ_Result result) {
+		result.r2 = tryToReplaceDelegate(new int[] {2});
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.leaprnd.observer4j;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+@JCStressTest
+@Description("Readers and writers that race with initialization wait for it and observe its value.")
+@Outcome(id = "42, 43", expect = ACCEPTABLE, desc = "The reader saw the initial value before the update.")
+@Outcome(id = "43, 43", expect = ACCEPTABLE, desc = "The reader saw the update.")
+@Outcome(expect = FORBIDDEN, desc = "The initial value or the update was lost.")
+@State
+public class ListenableInitializationStressTest extends AbstractListenable<Integer> {
+
+	@Actor
+	public void initializer() {
+		initialize(42);
+	}
+
+	@Actor
+	public void reader(II_Result result) {
+		result.r1 = takeSnapshot();
+	}
+
+	@Actor
+	public void writer(II_Result result) {
+		result.r2 = update(oldValue -> oldValue + 1);
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.leaprnd.observer4j;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+@JCStressTest
+@Description("Every update is emitted before the updating threads return, even when they race to drain.")
+@Outcome(id = "2, 2", expect = ACCEPTABLE, desc = "Both updates were emitted in order.")
+@Outcome(id = "1, .*", expect = FORBIDDEN, desc = "An emission was left pending.")
+@Outcome(expect = FORBIDDEN, desc = "Emissions were duplicated or reordered.")
+@State
+public class ListenableLostNotificationStressTest extends AbstractListenable<Integer> {
+
+	private int numberOfNotifications = 0;
+	private int lastValue = 0;
+
+	private final StrongSynchronousListener<Integer> listener = (before, after) -> {
+		numberOfNotifications ++;
+		if (after == lastValue + 1) {
+			lastValue = after;
+		}
+	};
+
+	public ListenableLostNotificationStressTest() {
+		super(0);
+		listenWith(listener);
+	}
+
+	@Actor
+	public void actor1() {
+		update(oldValue -> oldValue + 1);
+	}
+
+	@Actor
+	public void actor2() {
+		update(oldValue -> oldValue + 1);
+	}
+
+	@Arbiter
+	public void arbiter(II_Result result) {
+		result.r1 = numberOfNotifications;
+		result.r2 = lastValue;
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.leaprnd.observer4j;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.I_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+@JCStressTest
+@Description("Concurrent updates of an AbstractListenable are never lost.")
+@Outcome(id = "2", expect = ACCEPTABLE, desc = "Both updates were applied.")
+@Outcome(expect = FORBIDDEN, desc = "An update was lost.")
+@State
+public class ListenableLostUpdateStressTest extends AbstractListenable<Integer> {
+
+	public ListenableLostUpdateStressTest() {
+		super(0);
+	}
+
+	@Actor
+	public void actor1() {
+		update(oldValue -> oldValue + 1);
+	}
+
+	@Actor
+	public void actor2() {
+		update(oldValue -> oldValue + 1);
+	}
+
+	@Arbiter
+	public void arbiter(I_Result result) {
+		result.r1 = takeSnapshot();
+	}
+
+}
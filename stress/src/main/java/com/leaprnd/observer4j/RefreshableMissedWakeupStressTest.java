@@ -0,0 +1,57 @@
+package com.leaprnd.observer4j;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+@JCStressTest
+@Description("Concurrent refresh requests are never lost and never refreshed concurrently.")
+@Outcome(id = "2, 0", expect = ACCEPTABLE, desc = "Both requests were refreshed, one at a time.")
+@Outcome(id = "1, 0", expect = FORBIDDEN, desc = "A request was lost.")
+@Outcome(expect = FORBIDDEN, desc = "Refreshes overlapped.")
+@State
+public class RefreshableMissedWakeupStressTest extends AbstractRefreshable {
+
+	private final AtomicInteger numberOfActiveRefreshes = new AtomicInteger();
+	private final AtomicInteger numberOfOverlaps = new AtomicInteger();
+	private final AtomicInteger numberOfRequests = new AtomicInteger();
+
+	public RefreshableMissedWakeupStressTest() {
+		super(Runnable::run);
+	}
+
+	@Override
+	protected void refresh(int numberOfRequests) {
+		if (numberOfActiveRefreshes.incrementAndGet() != 1) {
+			numberOfOverlaps.incrementAndGet();
+		}
+		this.numberOfRequests.addAndGet(numberOfRequests);
+		numberOfActiveRefreshes.decrementAndGet();
+	}
+
+	@Actor
+	public void actor1() {
+		refreshSynchronousRefresh();
+	}
+
+	@Actor
+	public void actor2() {
+		refreshSynchronousRefresh();
+	}
+
+	@Arbiter
+	public void arbiter(II_Result result) {
+		result.r1 = numberOfRequests.get();
+		result.r2 = numberOfOverlaps.get();
+	}
+
+}
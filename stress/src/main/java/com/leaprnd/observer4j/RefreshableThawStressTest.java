@@ -0,0 +1,51 @@
+package com.leaprnd.observer4j;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.I_Result;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+@JCStressTest
+@Description("A request made while a refreshable is being thawed is refreshed exactly once.")
+@Outcome(id = "1", expect = ACCEPTABLE, desc = "The request was refreshed.")
+@Outcome(id = "0", expect = FORBIDDEN, desc = "The request was lost.")
+@Outcome(expect = FORBIDDEN, desc = "The request was refreshed twice.")
+@State
+public class RefreshableThawStressTest extends AbstractRefreshable {
+
+	private final AtomicInteger numberOfRequests = new AtomicInteger();
+
+	public RefreshableThawStressTest() {
+		super(Runnable::run);
+		freeze();
+	}
+
+	@Override
+	protected void refresh(int numberOfRequests) {
+		this.numberOfRequests.addAndGet(numberOfRequests);
+	}
+
+	@Actor
+	public void requester() {
+		requestAsynchronousRefresh();
+	}
+
+	@Actor
+	public void thawer() {
+		thaw();
+	}
+
+	@Arbiter
+	public void arbiter(I_Result result) {
+		result.r1 = numberOfRequests.get();
+	}
+
+}